@@ -64,6 +64,24 @@ public class DataFXConfiguration {
         return 1000;
     }
 
+    /**
+     * Returns the time in milliseconds that the JavaFX Application Thread can spend in one pulse to execute
+     * runnables that were queued by DataFX
+     * @return the time budget in milliseconds
+     */
+    public long getPlatformDispatcherBudget() {
+        return 8;
+    }
+
+    /**
+     * Returns the time in milliseconds that the JavaFX Application Thread can spend in one frame to execute
+     * idle tasks
+     * @return the time budget in milliseconds
+     */
+    public long getIdleSchedulerBudget() {
+        return 4;
+    }
+
     public List<Element> getElements(String tagName) {
         NodeList nodes = getConfigurationDocument().getElementsByTagName(tagName);
         List<Element> ret = new ArrayList<>();
@@ -27,12 +27,15 @@
 package io.datafx.core;
 
 import io.datafx.core.concurrent.ConcurrentUtils;
-import javafx.application.Platform;
+import io.datafx.core.concurrent.DispatchThreadManager;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.value.ChangeListener;
+import javafx.concurrent.Task;
 import javafx.concurrent.Worker;
 
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -52,6 +55,8 @@ public class ExceptionHandler {
 
     private ObjectProperty<Throwable> exception;
 
+    private final Map<Worker<?>, Boolean> observedWorkers = new WeakHashMap<>();
+
     public ExceptionHandler() {
     }
 
@@ -96,7 +101,7 @@ public class ExceptionHandler {
     }
 
     public void setException(Throwable exception) {
-        if(Platform.isFxApplicationThread()) {
+        if(DispatchThreadManager.getDispatchThread().isDispatchThread()) {
             exceptionProperty().set(exception);
         }   else {
             try {
@@ -108,8 +113,30 @@ public class ExceptionHandler {
         }
     }
 
+    /**
+     * Observes the given worker. If the worker fails its exception will be passed to this handler.
+     * If the worker is a {@link javafx.concurrent.Task} the observation ends once the task is done since a task
+     * can't be restarted. By doing so the handler won't hold any listener of finished tasks. Any other worker, like a
+     * {@link javafx.concurrent.Service}, can be restarted and is observed as long as it exists. Observing such a worker
+     * several times adds only one listener.
+     * @param worker the worker
+     * @param <T> the result type of the worker
+     */
     public <T> void observeWorker(Worker<T> worker) {
-        worker.exceptionProperty().addListener((ob, ol, e) -> setException(e));
+        if (worker instanceof Task) {
+            ConcurrentUtils.onFinished(worker, w -> {
+                if (w.getException() != null) {
+                    setException(w.getException());
+                }
+            });
+        } else {
+            synchronized (observedWorkers) {
+                if (observedWorkers.put(worker, Boolean.TRUE) != null) {
+                    return;
+                }
+            }
+            worker.exceptionProperty().addListener((ob, ol, e) -> setException(e));
+        }
     }
 
     public ObjectProperty<Throwable> exceptionProperty() {
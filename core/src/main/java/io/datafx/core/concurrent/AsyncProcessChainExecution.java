@@ -0,0 +1,198 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.ExceptionHandler;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+/**
+ * Non blocking execution of a {@link io.datafx.core.concurrent.ProcessChain}. Instead of occupying one thread for
+ * the complete lifetime of the chain each process is executed as a continuation of the previous one. Processes that
+ * can be executed in the current thread are called directly, all other processes are scheduled on the executor or the
+ * JavaFX Application Thread. No thread waits for another thread while the chain is executed.
+ *
+ * @param <T> Return value of the chain.
+ */
+class AsyncProcessChainExecution<T> extends CompletableFuture<T> {
+
+    private final List<ProcessDescription<?, ?>> processes;
+
+    private final IntFunction<String> callSites;
+
+    private final Executor executor;
+
+    private final ExceptionHandler exceptionHandler;
+
+    private final Runnable finalRunnable;
+
+    private final CancellationToken token;
+
+    private final AtomicBoolean finished;
+
+    AsyncProcessChainExecution(final List<ProcessDescription<?, ?>> processes, final IntFunction<String> callSites, final Executor executor, final ExceptionHandler exceptionHandler, final Runnable finalRunnable) {
+        this.processes = processes;
+        this.callSites = callSites;
+        this.executor = executor;
+        this.exceptionHandler = exceptionHandler;
+        this.finalRunnable = finalRunnable;
+        this.token = new CancellationToken();
+        this.finished = new AtomicBoolean(false);
+    }
+
+    void start(final Object input) {
+        continueWith(0, input, null);
+    }
+
+    /**
+     * Cancels the token of the execution and completes this future. The process that is currently executed isn't
+     * interrupted. Once it returns the chain stops and the final runnable is called.
+     */
+    @Override
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        token.cancel();
+        return super.cancel(mayInterruptIfRunning);
+    }
+
+    /**
+     * Executes the processes of the chain beginning with the given index until a process must be executed in another
+     * thread.
+     *
+     * @param startIndex index of the first process
+     * @param input      input of the first process
+     * @param runningOn  the thread type for that this continuation was scheduled or null if the continuation runs in the
+     *                   thread that started the execution
+     */
+    @SuppressWarnings("unchecked")
+    private void continueWith(final int startIndex, final Object input, final ThreadType runningOn) {
+        Object lastResult = input;
+        int index = startIndex;
+        try {
+            while (index < processes.size()) {
+                token.throwIfCancelled();
+                ProcessDescription<Object, Object> processDescription = (ProcessDescription<Object, Object>) processes.get(index);
+                if (processDescription instanceof MemoizingProcessDescription) {
+                    MemoizingProcessDescription.CacheEntry<Object> entry = ((MemoizingProcessDescription<Object, Object>) processDescription).getCachedEntry(lastResult);
+                    if (entry != null) {
+                        lastResult = entry.getValue();
+                        index++;
+                        continue;
+                    }
+                }
+                ThreadType type = processDescription.getThreadType();
+                if (!(index == startIndex && type == runningOn) && !isCurrentThread(type, runningOn)) {
+                    schedule(processDescription.getThreadType(), index, lastResult);
+                    return;
+                }
+                if (type == ThreadType.EXECUTOR) {
+                    lastResult = processDescription.apply(lastResult, token);
+                } else {
+                    lastResult = CompiledProcessChain.applyOnPlatformThread(lastResult, processDescription, callSites.apply(index), token);
+                }
+                index++;
+            }
+        } catch (Throwable e) {
+            finish(null, e);
+            return;
+        }
+        finish((T) lastResult, null);
+    }
+
+    private void schedule(final ThreadType type, final int index, final Object input) {
+        switch (type) {
+            case PLATFORM:
+                DispatchThreadManager.getDispatchThread().execute(() -> continueWith(index, input, ThreadType.PLATFORM));
+                break;
+            case IDLE:
+                DispatchThreadManager.getDispatchThread().getIdleExecutor().execute(() -> continueWith(index, input, ThreadType.IDLE));
+                break;
+            default:
+                executor.execute(() -> continueWith(index, input, ThreadType.EXECUTOR));
+        }
+    }
+
+    /**
+     * Checks if a process of the given type can be executed directly. A process that must be executed by the executor is
+     * only executed directly if the current continuation was scheduled on the executor by this execution. Any other
+     * thread, like the thread that called {@link #start(Object)}, might belong to another executor.
+     */
+    private boolean isCurrentThread(final ThreadType type, final ThreadType runningOn) {
+        switch (type) {
+            case PLATFORM:
+                return DispatchThreadManager.getDispatchThread().isDispatchThread();
+            case EXECUTOR:
+                return runningOn == ThreadType.EXECUTOR;
+            default:
+                return false;
+        }
+    }
+
+    private void finish(final T result, final Throwable exception) {
+        if (!finished.compareAndSet(false, true)) {
+            return;
+        }
+        boolean cancelled = token.isCancelled() && (exception == null || exception instanceof CancellationException);
+        if (finalRunnable == null && (exceptionHandler == null || exception == null || cancelled)) {
+            complete(result, exception, cancelled);
+        } else if (DispatchThreadManager.getDispatchThread().isDispatchThread()) {
+            handleOnPlatformThread(result, exception, cancelled);
+        } else {
+            DispatchThreadManager.getDispatchThread().execute(() -> handleOnPlatformThread(result, exception, cancelled));
+        }
+    }
+
+    private void handleOnPlatformThread(final T result, final Throwable exception, final boolean cancelled) {
+        try {
+            if (exception != null && exceptionHandler != null && !cancelled) {
+                exceptionHandler.setException(exception);
+            }
+        } finally {
+            try {
+                if (finalRunnable != null) {
+                    finalRunnable.run();
+                }
+            } finally {
+                complete(result, exception, cancelled);
+            }
+        }
+    }
+
+    private void complete(final T result, final Throwable exception, final boolean cancelled) {
+        if (cancelled) {
+            super.cancel(false);
+        } else if (exception != null) {
+            completeExceptionally(exception);
+        } else {
+            complete(result);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import io.datafx.core.ExceptionHandler;
+import javafx.beans.InvalidationListener;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+import javafx.collections.ObservableListBase;
+import javafx.collections.WeakListChangeListener;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * A read only view of an {@link javafx.collections.ObservableList} that is filtered and sorted in the background.
+ * In contrast to {@link javafx.collections.transformation.FilteredList} and
+ * {@link javafx.collections.transformation.SortedList} the predicate and the comparator are never called on the
+ * JavaFX Application Thread. Whenever the source, the predicate or the comparator changes a snapshot of the source is
+ * filtered and sorted by the executor. Big lists are filtered and sorted in parallel. Once the result is available
+ * the content of the view is replaced by one change. If the source, the predicate or the comparator changes while a
+ * result is calculated the calculation is cancelled and its result is never shown.
+ *
+ * The content of the source is never copied on the JavaFX Application Thread while the view is updated. If the source
+ * is a {@link io.datafx.core.concurrent.PersistentObservableList} its snapshots are used directly. Any other source is
+ * copied once into an internal {@link io.datafx.core.concurrent.PersistentObservableList} when the view is created.
+ * Each change of the source is applied to this copy, which costs O(log n) per changed element, and the snapshots are
+ * taken from the copy.
+ *
+ * All changes that happen in one pass of the JavaFX Application Thread are handled by one calculation.
+ *
+ * @param <T> type of the elements
+ */
+public class BackgroundSortedFilteredList<T> extends ObservableListBase<T> {
+
+    /**
+     * Lists with more elements are filtered and sorted in parallel
+     */
+    public static final int PARALLEL_THRESHOLD = 50_000;
+
+    private final ObservableList<? extends T> source;
+
+    private final Executor executor;
+
+    private final ExceptionHandler exceptionHandler;
+
+    private final ObjectProperty<Predicate<? super T>> predicate;
+
+    private final ObjectProperty<Comparator<? super T>> comparator;
+
+    private final ReadOnlyBooleanWrapper updating;
+
+    private final AtomicLong generation;
+
+    private final PersistentObservableList<? extends T> snapshotSource;
+
+    private final PersistentObservableList<T> sourceCopy;
+
+    private final ListChangeListener<T> sourceListener;
+
+    private boolean updateScheduled;
+
+    private Object[] elements;
+
+    public BackgroundSortedFilteredList(final ObservableList<? extends T> source) {
+        this(source, ObservableExecutor.getDefaultInstance());
+    }
+
+    /**
+     * Creates a new view. Must be called on the JavaFX Application Thread.
+     *
+     * @param source   the source list
+     * @param executor the executor that filters and sorts the source
+     */
+    public BackgroundSortedFilteredList(final ObservableList<? extends T> source, final Executor executor) {
+        this(source, executor, ExceptionHandler.getDefaultInstance());
+    }
+
+    /**
+     * Creates a new view. Must be called on the JavaFX Application Thread.
+     *
+     * @param source           the source list
+     * @param executor         the executor that filters and sorts the source
+     * @param exceptionHandler handler for exceptions that are thrown by the predicate or the comparator
+     */
+    public BackgroundSortedFilteredList(final ObservableList<? extends T> source, final Executor executor, final ExceptionHandler exceptionHandler) {
+        this.source = Assert.requireNonNull(source, "source");
+        this.executor = Assert.requireNonNull(executor, "executor");
+        this.exceptionHandler = Assert.requireNonNull(exceptionHandler, "exceptionHandler");
+        this.predicate = new SimpleObjectProperty<>(this, "predicate");
+        this.comparator = new SimpleObjectProperty<>(this, "comparator");
+        this.updating = new ReadOnlyBooleanWrapper(this, "updating");
+        this.generation = new AtomicLong();
+        this.elements = new Object[0];
+        if (source instanceof PersistentObservableList) {
+            this.sourceCopy = null;
+            this.snapshotSource = (PersistentObservableList<? extends T>) source;
+        } else {
+            this.sourceCopy = new PersistentObservableList<>(source);
+            this.snapshotSource = sourceCopy;
+        }
+        this.sourceListener = c -> {
+            if (sourceCopy != null) {
+                copyChange(c);
+            }
+            invalidate();
+        };
+        source.addListener(new WeakListChangeListener<>(sourceListener));
+        InvalidationListener listener = o -> invalidate();
+        predicate.addListener(listener);
+        comparator.addListener(listener);
+        invalidate();
+    }
+
+    /**
+     * The predicate that defines the elements of the source that are part of this view. If no predicate is set all
+     * elements are part of this view.
+     *
+     * @return the predicate property
+     */
+    public ObjectProperty<Predicate<? super T>> predicateProperty() {
+        return predicate;
+    }
+
+    public Predicate<? super T> getPredicate() {
+        return predicate.get();
+    }
+
+    public void setPredicate(final Predicate<? super T> predicate) {
+        this.predicate.set(predicate);
+    }
+
+    /**
+     * The comparator that defines the order of this view. If no comparator is set the elements keep the order of the
+     * source.
+     *
+     * @return the comparator property
+     */
+    public ObjectProperty<Comparator<? super T>> comparatorProperty() {
+        return comparator;
+    }
+
+    public Comparator<? super T> getComparator() {
+        return comparator.get();
+    }
+
+    public void setComparator(final Comparator<? super T> comparator) {
+        this.comparator.set(comparator);
+    }
+
+    /**
+     * True while the content of this view is calculated in the background
+     *
+     * @return the updating property
+     */
+    public ReadOnlyBooleanProperty updatingProperty() {
+        return updating.getReadOnlyProperty();
+    }
+
+    public boolean isUpdating() {
+        return updating.get();
+    }
+
+    private void copyChange(final ListChangeListener.Change<? extends T> c) {
+        while (c.next()) {
+            if (c.wasPermutated() || c.wasUpdated()) {
+                for (int i = c.getFrom(); i < c.getTo(); i++) {
+                    sourceCopy.set(i, c.getList().get(i));
+                }
+            } else {
+                if (c.wasRemoved()) {
+                    sourceCopy.remove(c.getFrom(), c.getFrom() + c.getRemovedSize());
+                }
+                if (c.wasAdded()) {
+                    sourceCopy.addAll(c.getFrom(), c.getAddedSubList());
+                }
+            }
+        }
+    }
+
+    private void invalidate() {
+        generation.incrementAndGet();
+        updating.set(true);
+        if (!updateScheduled) {
+            updateScheduled = true;
+            DispatchThreadManager.getDispatchThread().execute(this::startUpdate);
+        }
+    }
+
+    private void startUpdate() {
+        updateScheduled = false;
+        final long currentGeneration = generation.get();
+        final List<?> snapshot = snapshotSource.snapshot();
+        final Predicate<? super T> currentPredicate = getPredicate();
+        final Comparator<? super T> currentComparator = getComparator();
+        executor.execute(() -> update(currentGeneration, snapshot, currentPredicate, currentComparator));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void update(final long updateGeneration, final List<?> snapshot, final Predicate<? super T> currentPredicate, final Comparator<? super T> currentComparator) {
+        try {
+            final Object[] elements = snapshot.toArray();
+            final boolean parallel = elements.length > PARALLEL_THRESHOLD;
+            Object[] result = elements;
+            if (currentPredicate != null) {
+                result = (parallel ? Arrays.stream(elements).parallel() : Arrays.stream(elements))
+                        .filter(e -> {
+                            checkGeneration(updateGeneration);
+                            return currentPredicate.test((T) e);
+                        }).toArray();
+            }
+            if (currentComparator != null) {
+                final Comparator<Object> checkedComparator = (a, b) -> {
+                    checkGeneration(updateGeneration);
+                    return currentComparator.compare((T) a, (T) b);
+                };
+                if (parallel) {
+                    Arrays.parallelSort(result, checkedComparator);
+                } else {
+                    Arrays.sort(result, checkedComparator);
+                }
+            }
+            checkGeneration(updateGeneration);
+            final Object[] finalResult = result;
+            DispatchThreadManager.getDispatchThread().execute(() -> swap(updateGeneration, finalResult));
+        } catch (CancellationException e) {
+            // a newer update is running
+        } catch (RuntimeException e) {
+            DispatchThreadManager.getDispatchThread().execute(() -> {
+                if (updateGeneration == generation.get()) {
+                    updating.set(false);
+                }
+                exceptionHandler.setException(e);
+            });
+        }
+    }
+
+    private void checkGeneration(final long updateGeneration) {
+        if (updateGeneration != generation.get()) {
+            throw new CancellationException("Update is outdated");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void swap(final long updateGeneration, final Object[] result) {
+        if (updateGeneration != generation.get()) {
+            return;
+        }
+        PlatformProfiler.Measurement measurement = PlatformProfiler.getInstance().start("BackgroundSortedFilteredList swap");
+        try {
+            List<T> removed = (List<T>) Collections.unmodifiableList(Arrays.asList(elements));
+            elements = result;
+            beginChange();
+            if (!removed.isEmpty()) {
+                nextRemove(0, removed);
+            }
+            if (result.length > 0) {
+                nextAdd(0, result.length);
+            }
+            endChange();
+        } finally {
+            measurement.close();
+        }
+        updating.set(false);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(final int index) {
+        return (T) elements[index];
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+}
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+
+/**
+ * A {@link io.datafx.core.concurrent.Publisher} that is a {@link java.util.concurrent.Flow.Publisher}, too.
+ * All values that are published will be send to the subscribers of the publisher. Each subscriber has a bounded
+ * buffer and the demand of the subscriber is respected: once the buffer of a subscriber is full the
+ * {@link #publish(Object[])} call blocks until the subscriber requests more values. By doing so a fast producer
+ * can't flood a slow consumer like the JavaFX Application Thread.
+ *
+ * Values are delivered by tasks of the delivery executor. Since the producer blocks while a buffer is full the
+ * delivery executor must never be the bounded pool the producers run in: if all threads of the pool block in
+ * {@link #publish(Object[])} no thread is left to deliver the buffered values and the publisher deadlocks.
+ *
+ * @param <T> type of the published values
+ * @see io.datafx.core.concurrent.ObservableListSubscriber
+ */
+public class BackpressurePublisher<T> implements Publisher<T>, Flow.Publisher<T>, AutoCloseable {
+
+    /**
+     * The default size of the buffer of each subscriber
+     */
+    public static final int DEFAULT_BUFFER_CAPACITY = 256;
+
+    private final SubmissionPublisher<T> publisher;
+
+    /**
+     * Creates a new publisher that uses the {@link java.util.concurrent.ForkJoinPool#commonPool()} to deliver values
+     * to its subscribers. The default DataFX thread pool isn't used since producers that run in that pool block
+     * while the buffer of a subscriber is full.
+     */
+    public BackpressurePublisher() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BUFFER_CAPACITY);
+    }
+
+    /**
+     * Creates a new publisher
+     *
+     * @param executor       executor that is used to deliver values to the subscribers, must not be the pool that
+     *                       runs the producers
+     * @param bufferCapacity the maximum number of values that are buffered for each subscriber
+     */
+    public BackpressurePublisher(final Executor executor, final int bufferCapacity) {
+        Assert.requireNonNull(executor, "executor");
+        if (bufferCapacity <= 0) {
+            throw new IllegalArgumentException("bufferCapacity must be positive");
+        }
+        this.publisher = new SubmissionPublisher<>(executor, bufferCapacity);
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Sends the given values to all subscribers. The call blocks while the buffer of a subscriber is full.
+     *
+     * @param values the values
+     */
+    @Override
+    @SafeVarargs
+    public final void publish(final T... values) {
+        if (values != null) {
+            for (T value : values) {
+                publisher.submit(value);
+            }
+        }
+    }
+
+    /**
+     * Completes the publisher. All subscribers will be informed once they received all published values.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+    }
+
+    /**
+     * Completes the publisher with an error. All subscribers will be informed by calling
+     * {@link java.util.concurrent.Flow.Subscriber#onError(Throwable)}.
+     *
+     * @param error the error
+     */
+    public void closeExceptionally(final Throwable error) {
+        publisher.closeExceptionally(error);
+    }
+
+    /**
+     * Returns true if the publisher is closed
+     *
+     * @return true if the publisher is closed
+     */
+    public boolean isClosed() {
+        return publisher.isClosed();
+    }
+}
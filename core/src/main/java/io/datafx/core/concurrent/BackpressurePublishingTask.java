@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import javafx.concurrent.Task;
+
+import java.util.concurrent.Flow;
+
+/**
+ * A task that publishes values to {@link java.util.concurrent.Flow.Subscriber} instances. In contrast to the
+ * {@link io.datafx.core.concurrent.PublishingTask} the demand of the subscribers is respected: the
+ * {@link #publish(Object[])} call blocks while a subscriber can't handle more values. All subscribers
+ * will be completed once the {@link #callTask()} method returns.
+ * Subscribers should be added before the task is started.
+ *
+ * @param <T> The type of the values that are published.
+ * @see io.datafx.core.concurrent.ObservableListSubscriber
+ */
+public abstract class BackpressurePublishingTask<T> extends Task<Void> implements Publisher<T>, Flow.Publisher<T> {
+
+    private final BackpressurePublisher<T> publisher;
+
+    public BackpressurePublishingTask() {
+        this(new BackpressurePublisher<>());
+    }
+
+    public BackpressurePublishingTask(final BackpressurePublisher<T> publisher) {
+        this.publisher = Assert.requireNonNull(publisher, "publisher");
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    @Override
+    protected final Void call() throws Exception {
+        try {
+            callTask();
+        } catch (Exception e) {
+            publisher.closeExceptionally(e);
+            throw e;
+        }
+        publisher.close();
+        return null;
+    }
+
+    protected abstract void callTask() throws Exception;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void publish(final T... values) {
+        publisher.publish(values);
+    }
+}
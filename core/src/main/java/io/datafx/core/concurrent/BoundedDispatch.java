@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Executes runnables on the dispatch thread while only a limited number of runnables can wait for the dispatch thread
+ * at a time. If this limit is reached the calling thread is blocked until the dispatch thread has executed one of the
+ * runnables. If the calling thread is the dispatch thread the runnable is executed directly.
+ */
+final class BoundedDispatch {
+
+    private final Semaphore inFlight;
+
+    private final String callSite;
+
+    BoundedDispatch(final int maxInFlight, final String callSite) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxChunksInFlight must be > 0");
+        }
+        this.inFlight = new Semaphore(maxInFlight);
+        this.callSite = callSite;
+    }
+
+    /**
+     * Executes the runnable on the dispatch thread. The method blocks if too many runnables are waiting for the
+     * dispatch thread.
+     *
+     * @param runnable the runnable
+     * @throws CancellationException if the calling thread is interrupted while waiting
+     */
+    void dispatch(final Runnable runnable) {
+        Assert.requireNonNull(runnable, "runnable");
+        DispatchThread dispatchThread = DispatchThreadManager.getDispatchThread();
+        if (dispatchThread.isDispatchThread()) {
+            run(runnable);
+            return;
+        }
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the dispatch thread");
+        }
+        try {
+            dispatchThread.execute(() -> {
+                try {
+                    run(runnable);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void run(final Runnable runnable) {
+        PlatformProfiler.Measurement measurement = PlatformProfiler.getInstance().start(callSite);
+        try {
+            runnable.run();
+        } finally {
+            measurement.close();
+        }
+    }
+}
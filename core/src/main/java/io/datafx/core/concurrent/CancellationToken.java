@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A token that is used to cancel a running {@link io.datafx.core.concurrent.ProcessChain} cooperatively.
+ * One token is created for each execution of a chain and is passed to all processes of the chain.
+ * A long running function can check the token by calling {@link #isCancelled()} or
+ * {@link #throwIfCancelled()}. Blocking operations like
+ * {@link ConcurrentUtils#runCallableAndWait(java.util.concurrent.Callable, CancellationToken)} register a listener
+ * at the token and will be aborted once the token is cancelled.
+ *
+ * @see io.datafx.core.concurrent.ProcessChain#addCancellableFunction(java.util.function.BiFunction, ThreadType)
+ */
+public class CancellationToken {
+
+    private final List<Runnable> listeners;
+
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a new token that is not cancelled
+     */
+    public CancellationToken() {
+        listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Cancels the token. All registered listeners will be called once in the calling thread.
+     * Calling this method more than once has no effect.
+     */
+    public void cancel() {
+        synchronized (listeners) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+        }
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+        listeners.clear();
+    }
+
+    /**
+     * Returns true if the token was cancelled
+     *
+     * @return true if the token was cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Throws a {@link java.util.concurrent.CancellationException} if the token was cancelled
+     *
+     * @throws CancellationException if the token was cancelled
+     */
+    public void throwIfCancelled() {
+        if (cancelled) {
+            throw new CancellationException("Process was cancelled");
+        }
+    }
+
+    /**
+     * Adds a listener that will be called once the token is cancelled. If the token is already cancelled the listener
+     * will be called directly in the calling thread.
+     *
+     * @param listener the listener
+     */
+    public void addCancelListener(final Runnable listener) {
+        Assert.requireNonNull(listener, "listener");
+        synchronized (listeners) {
+            if (!cancelled) {
+                listeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    /**
+     * Removes a listener that was added by {@link #addCancelListener(Runnable)}
+     *
+     * @param listener the listener
+     */
+    public void removeCancelListener(final Runnable listener) {
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Collects elements that are produced in a background thread into chunks and hands each chunk to a consumer on the
+ * dispatch thread. Only a limited number of chunks can wait for the dispatch thread at a time. If this limit is
+ * reached the producing thread is blocked until the dispatch thread has handled a chunk. By doing so a fast producer
+ * can't flood the dispatch thread.
+ *
+ * If elements are added on the dispatch thread the chunks are handled directly. A producer only holds the lock of this
+ * object while it adds an element, it never waits for the dispatch thread while holding the lock. By doing so
+ * parallel producers and {@link #flush()} aren't blocked by a producer that waits for the dispatch thread.
+ *
+ * @param <T> type of the elements
+ */
+class ChunkedDispatch<T> implements Consumer<T> {
+
+    private final int chunkSize;
+
+    private final BoundedDispatch dispatch;
+
+    private final Consumer<List<T>> chunkConsumer;
+
+    private List<T> chunk;
+
+    ChunkedDispatch(final int chunkSize, final int maxChunksInFlight, final String callSite, final Consumer<List<T>> chunkConsumer) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be > 0");
+        }
+        this.chunkSize = chunkSize;
+        this.dispatch = new BoundedDispatch(maxChunksInFlight, callSite);
+        this.chunkConsumer = Assert.requireNonNull(chunkConsumer, "chunkConsumer");
+        this.chunk = new ArrayList<>(chunkSize);
+    }
+
+    @Override
+    public void accept(final T element) {
+        List<T> full = null;
+        synchronized (this) {
+            chunk.add(element);
+            if (chunk.size() >= chunkSize) {
+                full = takeChunk();
+            }
+        }
+        dispatch(full);
+    }
+
+    /**
+     * Dispatches all elements that are not part of a full chunk
+     */
+    public void flush() {
+        List<T> rest = null;
+        synchronized (this) {
+            if (!chunk.isEmpty()) {
+                rest = takeChunk();
+            }
+        }
+        dispatch(rest);
+    }
+
+    private List<T> takeChunk() {
+        List<T> taken = chunk;
+        chunk = new ArrayList<>(chunkSize);
+        return taken;
+    }
+
+    private void dispatch(final List<T> elements) {
+        if (elements != null) {
+            dispatch.dispatch(() -> chunkConsumer.accept(elements));
+        }
+    }
+}
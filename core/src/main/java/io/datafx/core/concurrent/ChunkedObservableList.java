@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * An {@link javafx.collections.ObservableList} for lists with millions of elements. The elements are stored in
+ * chunks that are indexed by a tree, so reading, adding and removing an element at any position is O(log n) while
+ * an {@link java.util.ArrayList} based list needs O(n) to add or remove an element in the middle of the list. Adding
+ * or removing a range of elements is done in one step and creates one change that contains the whole range.
+ *
+ * Like any list that is bound to a control the list must only be modified on the JavaFX Application Thread. Several
+ * modifications can be fired as one change by using a transaction.
+ *
+ * @param <T> type of the elements
+ */
+public class ChunkedObservableList<T> extends TransactionalListBase<T> {
+
+    private final CountedBTree tree;
+
+    public ChunkedObservableList() {
+        this.tree = new CountedBTree();
+    }
+
+    /**
+     * Creates a new list that contains the given elements
+     *
+     * @param elements the elements
+     */
+    public ChunkedObservableList(final Collection<? extends T> elements) {
+        this();
+        Object[] array = Assert.requireNonNull(elements, "elements").toArray();
+        tree.insert(0, array, 0, array.length);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(final int index) {
+        Objects.checkIndex(index, tree.size());
+        return (T) tree.get(index);
+    }
+
+    @Override
+    public int size() {
+        return tree.size();
+    }
+
+    @Override
+    protected void doAdd(final int index, final T element) {
+        Objects.checkIndex(index, tree.size() + 1);
+        tree.insert(index, new Object[]{element}, 0, 1);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected T doSet(final int index, final T element) {
+        Objects.checkIndex(index, tree.size());
+        return (T) tree.set(index, element);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected T doRemove(final int index) {
+        Objects.checkIndex(index, tree.size());
+        T removed = (T) tree.get(index);
+        tree.removeRange(index, index + 1);
+        return removed;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected List<T> doReplace(final int from, final int to, final List<? extends T> elements) {
+        Objects.checkFromToIndex(from, to, tree.size());
+        Object[] removed = new Object[to - from];
+        tree.copyRange(from, to, removed, 0);
+        tree.removeRange(from, to);
+        Object[] array = elements.toArray();
+        tree.insert(from, array, 0, array.length);
+        return (List<T>) Arrays.asList(removed);
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends T> elements) {
+        return addAll(size(), elements);
+    }
+
+    @Override
+    public boolean addAll(final int index, final Collection<? extends T> elements) {
+        Objects.checkIndex(index, tree.size() + 1);
+        Object[] array = Assert.requireNonNull(elements, "elements").toArray();
+        if (array.length == 0) {
+            return false;
+        }
+        if (recordModification(index, index, array.length)) {
+            tree.insert(index, array, 0, array.length);
+            modCount++;
+            return true;
+        }
+        beginChange();
+        try {
+            tree.insert(index, array, 0, array.length);
+            modCount++;
+            nextAdd(index, index + array.length);
+        } finally {
+            endChange();
+        }
+        return true;
+    }
+
+    @Override
+    public void remove(final int from, final int to) {
+        removeRange(from, to);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void removeRange(final int from, final int to) {
+        Objects.checkFromToIndex(from, to, tree.size());
+        if (from == to) {
+            return;
+        }
+        if (recordModification(from, to, 0)) {
+            tree.removeRange(from, to);
+            modCount++;
+            return;
+        }
+        Object[] removed = new Object[to - from];
+        tree.copyRange(from, to, removed, 0);
+        beginChange();
+        try {
+            tree.removeRange(from, to);
+            modCount++;
+            nextRemove(from, (List<T>) Collections.unmodifiableList(Arrays.asList(removed)));
+        } finally {
+            endChange();
+        }
+    }
+
+    @Override
+    public void clear() {
+        removeRange(0, size());
+    }
+
+    @Override
+    public boolean setAll(final Collection<? extends T> elements) {
+        Assert.requireNonNull(elements, "elements");
+        beginChange();
+        try {
+            clear();
+            addAll(elements);
+        } finally {
+            endChange();
+        }
+        return true;
+    }
+
+    /**
+     * Returns a snapshot in O(1), see {@link io.datafx.core.concurrent.PersistentObservableList#snapshot()}
+     *
+     * @return the snapshot
+     */
+    List<T> createSnapshot() {
+        return new Snapshot<>(tree.snapshot());
+    }
+
+    @Override
+    public Object[] toArray() {
+        Object[] array = new Object[size()];
+        tree.copyRange(0, array.length, array, 0);
+        return array;
+    }
+
+    private static final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+
+        private final CountedBTree tree;
+
+        Snapshot(final CountedBTree tree) {
+            this.tree = tree;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(final int index) {
+            Objects.checkIndex(index, tree.size());
+            return (T) tree.get(index);
+        }
+
+        @Override
+        public int size() {
+            return tree.size();
+        }
+
+        @Override
+        public Object[] toArray() {
+            Object[] array = new Object[tree.size()];
+            tree.copyRange(0, array.length, array, 0);
+            return array;
+        }
+    }
+}
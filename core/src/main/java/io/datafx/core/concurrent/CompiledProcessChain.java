@@ -0,0 +1,228 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import io.datafx.core.ExceptionHandler;
+import javafx.concurrent.Task;
+import javafx.util.Duration;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * An immutable and thread safe version of a {@link io.datafx.core.concurrent.ProcessChain}. A compiled chain is created
+ * once by calling {@link ProcessChain#compile()} and can be executed any number of times, even concurrently.
+ * Each execution receives an input parameter that is passed to the first process of the chain. All state of an
+ * execution is held by the task or future that is returned for the execution.
+ *
+ * Here is a common usecase for a compiled chain:
+ * <tt>
+ * CompiledProcessChain&lt;String, Data&gt; loader = ProcessChain.&lt;String&gt;createWithInput().
+ * addFunctionInExecutor(id -&gt; loadFromServer(id)).
+ * onException(e -&gt; handleException(e)).
+ * compile();
+ *
+ * button.setOnAction(e -&gt; loader.run(idField.getText()));
+ * </tt>
+ *
+ * @param <I> Input parameter of the chain.
+ * @param <T> Return value of the chain.
+ */
+public final class CompiledProcessChain<I, T> {
+
+    private final ProcessDescription<Object, Object>[] processes;
+
+    private final List<ProcessDescription<?, ?>> processList;
+
+    private final String[] callSites;
+
+    private final Executor executorService;
+
+    private final ExceptionHandler exceptionHandler;
+
+    private final Runnable finalRunnable;
+
+    @SuppressWarnings("unchecked")
+    CompiledProcessChain(final List<ProcessDescription<?, ?>> processes, final Executor executorService, final ExceptionHandler exceptionHandler, final Runnable finalRunnable) {
+        this.processes = (ProcessDescription<Object, Object>[]) Assert.requireNonNull(processes, "processes").toArray(new ProcessDescription<?, ?>[0]);
+        this.processList = Collections.unmodifiableList(Arrays.asList(this.processes));
+        this.callSites = new String[this.processes.length];
+        this.executorService = Assert.requireNonNull(executorService, "executorService");
+        this.exceptionHandler = exceptionHandler;
+        this.finalRunnable = finalRunnable;
+    }
+
+    /**
+     * Returns all processes of the chain
+     *
+     * @return an unmodifiable list of all processes
+     */
+    public List<ProcessDescription<?, ?>> getProcesses() {
+        return processList;
+    }
+
+    /**
+     * Executes the chain once for the given input parameter
+     *
+     * @param input the input parameter of the first process
+     * @return the task that executes the chain
+     */
+    public Task<T> run(final I input) {
+        return repeat(input, 1, Duration.ZERO);
+    }
+
+    public Task<T> repeat(final I input, final int count) {
+        return repeat(input, count, Duration.ZERO);
+    }
+
+    public Task<T> repeatInfinite(final I input, final Duration pauseTime) {
+        return repeat(input, Integer.MAX_VALUE, pauseTime);
+    }
+
+    /**
+     * Executes the chain several times for the given input parameter. Once the chain was executed the thread will
+     * wait for the given pause time.
+     *
+     * @param input     the input parameter of the first process
+     * @param count     number of executions. {@link Integer#MAX_VALUE} can be used for an infinite execution
+     * @param pauseTime the pause between two executions
+     * @return the task that executes the chain
+     */
+    public Task<T> repeat(final I input, final int count, final Duration pauseTime) {
+        Assert.requireNonNull(pauseTime, "pauseTime");
+        final long pauseMillis = (long) pauseTime.toMillis();
+        final CancellationToken token = new CancellationToken();
+        Task<T> task = new Task<T>() {
+
+            @Override
+            @SuppressWarnings("unchecked")
+            protected T call() throws Exception {
+                try {
+                    Object lastResult = null;
+                    for (int i = 0; count == Integer.MAX_VALUE || i < count; i++) {
+                        lastResult = input;
+                        for (int stage = 0; stage < processes.length; stage++) {
+                            lastResult = execute(lastResult, processes[stage], stage, token);
+                        }
+                        Thread.sleep(pauseMillis);
+                        token.throwIfCancelled();
+                    }
+                    return (T) lastResult;
+                } catch (Exception e) {
+                    if (exceptionHandler != null && !isCancelled(e)) {
+                        ConcurrentUtils.runAndWait(() -> exceptionHandler.setException(e));
+                    }
+                    throw e;
+                } finally {
+                    if (finalRunnable != null) {
+                        if (token.isCancelled()) {
+                            DispatchThreadManager.getDispatchThread().execute(finalRunnable);
+                        } else {
+                            ConcurrentUtils.runAndWait(finalRunnable);
+                        }
+                    }
+                }
+            }
+
+            @Override
+            public boolean cancel(final boolean mayInterruptIfRunning) {
+                token.cancel();
+                return super.cancel(mayInterruptIfRunning);
+            }
+
+            private boolean isCancelled(final Exception e) {
+                return token.isCancelled() && (e instanceof CancellationException || e instanceof InterruptedException);
+            }
+
+        };
+        executorService.execute(task);
+        return task;
+    }
+
+    /**
+     * Executes the chain once for the given input parameter without blocking any thread.
+     *
+     * @param input the input parameter of the first process
+     * @return a future that will be completed with the result of the last process
+     * @see ProcessChain#runAsync()
+     */
+    public CompletableFuture<T> runAsync(final I input) {
+        AsyncProcessChainExecution<T> execution = new AsyncProcessChainExecution<>(processList, this::getCallSite, executorService, exceptionHandler, finalRunnable);
+        execution.start(input);
+        return execution;
+    }
+
+    /**
+     * Returns the name of a process that is used by the profiler. The name is only created once it is needed.
+     *
+     * @param stage index of the process
+     * @return the name
+     */
+    String getCallSite(final int stage) {
+        String callSite = callSites[stage];
+        if (callSite == null) {
+            callSite = "ProcessChain stage " + stage + " (" + processes[stage].getCallSiteName() + ")";
+            callSites[stage] = callSite;
+        }
+        return callSite;
+    }
+
+    private <U, V> V execute(final U inputParameter, final ProcessDescription<U, V> processDescription, final int stage, final CancellationToken token) throws InterruptedException, ExecutionException {
+        token.throwIfCancelled();
+        if (processDescription instanceof MemoizingProcessDescription) {
+            MemoizingProcessDescription.CacheEntry<V> entry = ((MemoizingProcessDescription<U, V>) processDescription).getCachedEntry(inputParameter);
+            if (entry != null) {
+                return entry.getValue();
+            }
+        }
+        switch (processDescription.getThreadType()) {
+            case EXECUTOR:
+                return processDescription.apply(inputParameter, token);
+            case IDLE:
+                return ConcurrentUtils.callAndWait(DispatchThreadManager.getDispatchThread().getIdleExecutor(), () -> applyOnPlatformThread(inputParameter, processDescription, getCallSite(stage), token), token);
+            default:
+                return ConcurrentUtils.callAndWait(DispatchThreadManager.getDispatchThread(), () -> applyOnPlatformThread(inputParameter, processDescription, getCallSite(stage), token), token);
+        }
+    }
+
+    static <U, V> V applyOnPlatformThread(final U inputParameter, final ProcessDescription<U, V> processDescription, final String callSite, final CancellationToken token) {
+        PlatformCallSite.Scope scope = PlatformCallSite.enter(callSite);
+        PlatformProfiler.Measurement measurement = PlatformProfiler.getInstance().start(callSite);
+        try {
+            return processDescription.apply(inputParameter, token);
+        } finally {
+            measurement.close();
+            scope.close();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.concurrent.Worker;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A {@link javafx.concurrent.Worker} that wraps a {@link java.util.concurrent.CompletionStage}. The worker is in the
+ * running state until the stage is completed. Once the stage is completed the state, value and exception of the
+ * worker are updated on the JavaFX Application Thread. Since a completion stage doesn't provide any progress the
+ * progress of the worker is always indeterminate.
+ *
+ * @param <V> the result type of the worker
+ * @see ConcurrentUtils#toWorker(java.util.concurrent.CompletionStage)
+ */
+public class CompletionStageWorker<V> implements Worker<V> {
+
+    private final CompletableFuture<V> future;
+
+    private final ReadOnlyObjectWrapper<State> state;
+
+    private final ReadOnlyObjectWrapper<V> value;
+
+    private final ReadOnlyObjectWrapper<Throwable> exception;
+
+    private final ReadOnlyBooleanWrapper running;
+
+    private final ReadOnlyDoubleWrapper workDone;
+
+    private final ReadOnlyDoubleWrapper totalWork;
+
+    private final ReadOnlyDoubleWrapper progress;
+
+    private final ReadOnlyStringWrapper title;
+
+    private final ReadOnlyStringWrapper message;
+
+    public CompletionStageWorker(final CompletionStage<V> stage) {
+        this.future = Assert.requireNonNull(stage, "stage").toCompletableFuture();
+        this.state = new ReadOnlyObjectWrapper<>(this, "state", State.RUNNING);
+        this.value = new ReadOnlyObjectWrapper<>(this, "value");
+        this.exception = new ReadOnlyObjectWrapper<>(this, "exception");
+        this.running = new ReadOnlyBooleanWrapper(this, "running", true);
+        this.workDone = new ReadOnlyDoubleWrapper(this, "workDone", -1);
+        this.totalWork = new ReadOnlyDoubleWrapper(this, "totalWork", -1);
+        this.progress = new ReadOnlyDoubleWrapper(this, "progress", -1);
+        this.title = new ReadOnlyStringWrapper(this, "title", "");
+        this.message = new ReadOnlyStringWrapper(this, "message", "");
+        stage.whenComplete((result, error) -> DispatchThreadManager.getDispatchThread().execute(() -> onCompleted(result, error)));
+    }
+
+    private void onCompleted(final V result, final Throwable error) {
+        running.set(false);
+        if (error == null) {
+            value.set(result);
+            state.set(State.SUCCEEDED);
+        } else {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof CancellationException) {
+                state.set(State.CANCELLED);
+            } else {
+                exception.set(cause);
+                state.set(State.FAILED);
+            }
+        }
+    }
+
+    @Override
+    public State getState() {
+        return state.get();
+    }
+
+    @Override
+    public ReadOnlyObjectProperty<State> stateProperty() {
+        return state.getReadOnlyProperty();
+    }
+
+    @Override
+    public V getValue() {
+        return value.get();
+    }
+
+    @Override
+    public ReadOnlyObjectProperty<V> valueProperty() {
+        return value.getReadOnlyProperty();
+    }
+
+    @Override
+    public Throwable getException() {
+        return exception.get();
+    }
+
+    @Override
+    public ReadOnlyObjectProperty<Throwable> exceptionProperty() {
+        return exception.getReadOnlyProperty();
+    }
+
+    @Override
+    public double getWorkDone() {
+        return workDone.get();
+    }
+
+    @Override
+    public ReadOnlyDoubleProperty workDoneProperty() {
+        return workDone.getReadOnlyProperty();
+    }
+
+    @Override
+    public double getTotalWork() {
+        return totalWork.get();
+    }
+
+    @Override
+    public ReadOnlyDoubleProperty totalWorkProperty() {
+        return totalWork.getReadOnlyProperty();
+    }
+
+    @Override
+    public double getProgress() {
+        return progress.get();
+    }
+
+    @Override
+    public ReadOnlyDoubleProperty progressProperty() {
+        return progress.getReadOnlyProperty();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    @Override
+    public ReadOnlyBooleanProperty runningProperty() {
+        return running.getReadOnlyProperty();
+    }
+
+    @Override
+    public String getMessage() {
+        return message.get();
+    }
+
+    @Override
+    public ReadOnlyStringProperty messageProperty() {
+        return message.getReadOnlyProperty();
+    }
+
+    @Override
+    public String getTitle() {
+        return title.get();
+    }
+
+    @Override
+    public ReadOnlyStringProperty titleProperty() {
+        return title.getReadOnlyProperty();
+    }
+
+    /**
+     * Cancels the wrapped completion stage
+     *
+     * @return true if the stage was cancelled
+     */
+    @Override
+    public boolean cancel() {
+        return future.cancel(true);
+    }
+}
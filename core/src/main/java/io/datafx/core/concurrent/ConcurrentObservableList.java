@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import io.datafx.core.ExceptionHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * An {@link javafx.collections.ObservableList} that can be modified from any thread. All {@code enqueue...} methods
+ * can be called from any thread and never block or lock. The modifications are buffered and applied on the JavaFX
+ * Application Thread the next time the {@link io.datafx.core.concurrent.DispatchThread} runs. All modifications that
+ * are buffered at that time are applied in one transaction, so listeners of the list receive one
+ * {@link javafx.collections.ListChangeListener.Change} that covers the range that was modified. Direct
+ * modifications on the JavaFX Application Thread can be grouped the same way by using a transaction.
+ *
+ * The list itself should only be read and modified directly on the JavaFX Application Thread, like any list that is
+ * bound to a control.
+ *
+ * Usage:
+ * <tt>
+ * ConcurrentObservableList&lt;String&gt; list = new ConcurrentObservableList&lt;&gt;();
+ * listView.setItems(list);
+ * executor.execute(() -&gt; list.enqueueAdd(loadValue()));
+ * </tt>
+ *
+ * @param <T> type of the elements
+ */
+public class ConcurrentObservableList<T> extends TransactionalListBase<T> implements Publisher<T> {
+
+    private final List<T> elements;
+
+    private final Queue<Consumer<? super List<T>>> pending;
+
+    private final AtomicBoolean updateScheduled;
+
+    private final ExceptionHandler exceptionHandler;
+
+    public ConcurrentObservableList() {
+        this(ExceptionHandler.getDefaultInstance());
+    }
+
+    /**
+     * Creates a new list
+     *
+     * @param exceptionHandler handler for exceptions that are thrown while a buffered modification is applied
+     */
+    public ConcurrentObservableList(final ExceptionHandler exceptionHandler) {
+        this.elements = new ArrayList<>();
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.updateScheduled = new AtomicBoolean(false);
+        this.exceptionHandler = Assert.requireNonNull(exceptionHandler, "exceptionHandler");
+    }
+
+    /**
+     * Adds the given values to the end of the list. Can be called from any thread.
+     *
+     * @param values the values
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void publish(final T... values) {
+        enqueueAddAll(Arrays.asList(values));
+    }
+
+    /**
+     * Adds the value to the end of the list. Can be called from any thread.
+     *
+     * @param value the value
+     */
+    public void enqueueAdd(final T value) {
+        enqueue(l -> l.add(value));
+    }
+
+    /**
+     * Adds all values to the end of the list. Can be called from any thread.
+     *
+     * @param values the values
+     */
+    public void enqueueAddAll(final Collection<? extends T> values) {
+        Assert.requireNonNull(values, "values");
+        final List<T> copy = new ArrayList<>(values);
+        enqueue(l -> l.addAll(copy));
+    }
+
+    /**
+     * Removes the first occurrence of the value. Can be called from any thread.
+     *
+     * @param value the value
+     */
+    public void enqueueRemove(final Object value) {
+        enqueue(l -> l.remove(value));
+    }
+
+    /**
+     * Removes all occurrences of the given values. Can be called from any thread.
+     *
+     * @param values the values
+     */
+    public void enqueueRemoveAll(final Collection<?> values) {
+        Assert.requireNonNull(values, "values");
+        final List<Object> copy = new ArrayList<>(values);
+        enqueue(l -> l.removeAll(copy));
+    }
+
+    /**
+     * Removes all elements that match the filter. The filter is called on the JavaFX Application Thread. Can be
+     * called from any thread.
+     *
+     * @param filter the filter
+     */
+    public void enqueueRemoveIf(final Predicate<? super T> filter) {
+        Assert.requireNonNull(filter, "filter");
+        enqueue(l -> l.removeIf(filter));
+    }
+
+    /**
+     * Replaces the first occurrence of {@code oldValue} by {@code newValue}. If the list doesn't contain
+     * {@code oldValue} nothing happens. Can be called from any thread.
+     *
+     * @param oldValue the value that should be replaced
+     * @param newValue the new value
+     */
+    public void enqueueReplace(final T oldValue, final T newValue) {
+        enqueue(l -> {
+            int index = l.indexOf(oldValue);
+            if (index >= 0) {
+                l.set(index, newValue);
+            }
+        });
+    }
+
+    /**
+     * Removes all elements. Can be called from any thread.
+     */
+    public void enqueueClear() {
+        enqueue(List::clear);
+    }
+
+    /**
+     * Buffers a modification of the list. The modification is called on the JavaFX Application Thread with this list
+     * as parameter. Can be called from any thread.
+     *
+     * @param modification the modification
+     */
+    public void enqueue(final Consumer<? super List<T>> modification) {
+        pending.add(Assert.requireNonNull(modification, "modification"));
+        if (updateScheduled.compareAndSet(false, true)) {
+            DispatchThreadManager.getDispatchThread().execute(this::applyPendingModifications);
+        }
+    }
+
+    /**
+     * Returns true if modifications are buffered that aren't applied yet
+     *
+     * @return true if modifications are buffered
+     */
+    public boolean hasPendingModifications() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Applies all buffered modifications as one change. This method must be called on the JavaFX Application Thread.
+     * Normally there is no need to call it since buffered modifications are applied automatically.
+     */
+    public void applyPendingModifications() {
+        updateScheduled.set(false);
+        if (pending.isEmpty()) {
+            return;
+        }
+        PlatformProfiler.Measurement measurement = PlatformProfiler.getInstance().start("ConcurrentObservableList update");
+        try {
+            beginTransaction();
+            try {
+                Consumer<? super List<T>> modification;
+                while ((modification = pending.poll()) != null) {
+                    try {
+                        modification.accept(this);
+                    } catch (Exception e) {
+                        exceptionHandler.setException(e);
+                    }
+                }
+            } finally {
+                commitTransaction();
+            }
+        } finally {
+            measurement.close();
+        }
+    }
+
+    @Override
+    public T get(final int index) {
+        return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    protected void doAdd(final int index, final T element) {
+        elements.add(index, element);
+    }
+
+    @Override
+    protected T doSet(final int index, final T element) {
+        return elements.set(index, element);
+    }
+
+    @Override
+    protected T doRemove(final int index) {
+        return elements.remove(index);
+    }
+
+    @Override
+    protected List<T> doReplace(final int from, final int to, final List<? extends T> replacement) {
+        List<T> range = elements.subList(from, to);
+        List<T> removed = new ArrayList<>(range);
+        range.clear();
+        range.addAll(replacement);
+        return removed;
+    }
+}
@@ -26,23 +26,24 @@
  */
 package io.datafx.core.concurrent;
 
-import javafx.application.Platform;
+import io.datafx.core.Assert;
 import javafx.beans.binding.BooleanBinding;
-import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.ReadOnlyBooleanProperty;
-import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
 import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.beans.value.WeakChangeListener;
 import javafx.concurrent.Service;
 import javafx.concurrent.Task;
 import javafx.concurrent.Worker;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.FutureTask;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 
 /**
@@ -67,8 +68,8 @@ public class ConcurrentUtils {
      */
     public static void runAndWait(Runnable runnable)
             throws InterruptedException, ExecutionException {
-        FutureTask<Void> future = new FutureTask<>(runnable, null);
-        Platform.runLater(future);
+        FutureTask<Void> future = new FutureTask<>(profiled(runnable), null);
+        DispatchThreadManager.getDispatchThread().execute(future);
         future.get();
     }
 
@@ -85,11 +86,77 @@ public class ConcurrentUtils {
      */
     public static <T> T runCallableAndWait(Callable<T> callable)
             throws InterruptedException, ExecutionException {
-        FutureTask<T> future = new FutureTask<T>(callable);
-        Platform.runLater(future);
+        FutureTask<T> future = new FutureTask<T>(profiled(callable));
+        DispatchThreadManager.getDispatchThread().execute(future);
         return future.get();
     }
 
+    /**
+     * Runs the given <tt>Callable</tt> on the JavaFX Application Thread. The method blocks until the <tt>Callable</tt>
+     * is executed completely or the given token is cancelled. If the token is cancelled before the <tt>Callable</tt>
+     * was started it will never be executed on the JavaFX Application Thread.
+     *
+     * @param callable the callable that will be executed on the JavaFX Application Thread
+     * @param token    the cancellation token that can abort the wait
+     * @param <T>      return type of the callable
+     * @return return value of the executed call() method of the <tt>Callable</tt>
+     * @throws InterruptedException if the JavaFX Application Thread was interrupted while waiting
+     * @throws ExecutionException   if the call of the run method of the <tt>Callable</tt> threw an exception
+     * @throws java.util.concurrent.CancellationException if the token was cancelled while waiting
+     */
+    public static <T> T runCallableAndWait(Callable<T> callable, CancellationToken token)
+            throws InterruptedException, ExecutionException {
+        return callAndWait(DispatchThreadManager.getDispatchThread(), profiled(callable), token);
+    }
+
+    /**
+     * Runs the given <tt>Callable</tt> on the JavaFX Application Thread once the thread is idle. The method blocks
+     * until the <tt>Callable</tt> is executed completely or the given token is cancelled.
+     *
+     * @param callable the callable that will be executed on the JavaFX Application Thread
+     * @param token    the cancellation token that can abort the wait
+     * @param <T>      return type of the callable
+     * @return return value of the executed call() method of the <tt>Callable</tt>
+     * @throws InterruptedException if the JavaFX Application Thread was interrupted while waiting
+     * @throws ExecutionException   if the call of the run method of the <tt>Callable</tt> threw an exception
+     * @see io.datafx.core.concurrent.IdleScheduler
+     */
+    public static <T> T runCallableWhenIdleAndWait(Callable<T> callable, CancellationToken token)
+            throws InterruptedException, ExecutionException {
+        return callAndWait(DispatchThreadManager.getDispatchThread().getIdleExecutor(), profiled(callable), token);
+    }
+
+    static <T> T callAndWait(Executor executor, Callable<T> callable, CancellationToken token)
+            throws InterruptedException, ExecutionException {
+        Assert.requireNonNull(token, "token");
+        token.throwIfCancelled();
+        FutureTask<T> future = new FutureTask<T>(callable);
+        Runnable cancelListener = () -> future.cancel(false);
+        token.addCancelListener(cancelListener);
+        try {
+            executor.execute(future);
+            return future.get();
+        } finally {
+            token.removeCancelListener(cancelListener);
+        }
+    }
+
+    private static Runnable profiled(Runnable runnable) {
+        PlatformProfiler profiler = PlatformProfiler.getInstance();
+        if (!profiler.isEnabled()) {
+            return runnable;
+        }
+        return profiler.wrap("ConcurrentUtils (" + runnable.getClass().getName() + ")", runnable);
+    }
+
+    private static <T> Callable<T> profiled(Callable<T> callable) {
+        PlatformProfiler profiler = PlatformProfiler.getInstance();
+        if (!profiler.isEnabled()) {
+            return callable;
+        }
+        return profiler.wrapCallable("ConcurrentUtils (" + callable.getClass().getName() + ")", callable);
+    }
+
     public static DataFxService<Void> createService(Runnable runnable) {
         return createService(new RunnableBasedDataFxTask(runnable));
     }
@@ -124,78 +191,224 @@ public class ConcurrentUtils {
     }
 
     /**
-     * The given consumer will be called once the worker is finished. The result of the worker
-     * will be passed to the consumer.
+     * The given consumer will be called each time the worker is finished. The result of the worker
+     * will be passed to the consumer. The consumer is called in the thread that changes the state of the worker, for
+     * all JavaFX workers this is the JavaFX Application Thread. If the worker is already finished the consumer is
+     * only called once the worker is finished again. If the worker is a {@link javafx.concurrent.Task} the listener
+     * is removed once the task is done since a task can't be restarted.
      * @param worker the worker
      * @param consumer the consumer
      * @param <T> the resukt type of the worker
+     * @see #thenOnce(Worker, Consumer)
      */
     public static <T> void then(Worker<T> worker, Consumer<T> consumer) {
-        ReadOnlyBooleanProperty doneProperty = createIsDoneProperty(worker);
-        ChangeListener<Boolean> listener = (o, oldValue, newValue) -> {
-            if (newValue) {
-                consumer.accept(worker.getValue());
+        Assert.requireNonNull(worker, "worker");
+        Assert.requireNonNull(consumer, "consumer");
+        final boolean singleShot = worker instanceof Task;
+        worker.stateProperty().addListener(new ChangeListener<Worker.State>() {
+            @Override
+            public void changed(ObservableValue<? extends Worker.State> observable, Worker.State oldValue, Worker.State newValue) {
+                if (isFinished(newValue)) {
+                    if (singleShot) {
+                        observable.removeListener(this);
+                    }
+                    consumer.accept(worker.getValue());
+                }
             }
-        };
-        doneProperty.addListener(listener);
+        });
+    }
+
+    /**
+     * The given consumer will be called once the worker is finished. The result of the worker will be passed to the
+     * consumer. If the worker failed or was cancelled null will be passed to the consumer. In contrast to
+     * {@link #then(Worker, Consumer)} the consumer is called only once, even if the worker is restarted, and it is
+     * called directly if the worker is already finished. The consumer is always called on the JavaFX Application
+     * Thread and the listener that is needed for this removes itself once the worker is finished.
+     * @param worker the worker
+     * @param consumer the consumer
+     * @param <T> the result type of the worker
+     * @see #onFinished(Worker, Consumer)
+     */
+    public static <T> void thenOnce(Worker<T> worker, Consumer<T> consumer) {
+        Assert.requireNonNull(consumer, "consumer");
+        onFinished(worker, w -> consumer.accept(w.getState().equals(Worker.State.SUCCEEDED) ? w.getValue() : null));
+    }
+
+    /**
+     * Returns a future that will be completed once the given worker is finished. If the worker succeeds the future
+     * is completed with the value of the worker, if the worker fails the future is completed with the exception of
+     * the worker and if the worker is cancelled the future will be cancelled. The listener that is registered at the
+     * worker removes itself once the worker is finished.
+     *
+     * @param worker the worker
+     * @param <T> the result type of the worker
+     * @return the future
+     */
+    public static <T> CompletableFuture<T> toCompletableFuture(Worker<T> worker) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        onFinished(worker, w -> {
+            switch (w.getState()) {
+                case SUCCEEDED:
+                    future.complete(w.getValue());
+                    break;
+                case FAILED:
+                    future.completeExceptionally(w.getException() != null ? w.getException() : new ExecutionException("Worker failed", null));
+                    break;
+                default:
+                    future.cancel(false);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Returns a worker that wraps the given completion stage. The state of the worker is updated on the
+     * JavaFX Application Thread once the stage is completed.
+     *
+     * @param stage the completion stage
+     * @param <T> the result type of the stage
+     * @return the worker
+     * @see CompletionStageWorker
+     */
+    public static <T> Worker<T> toWorker(CompletionStage<T> stage) {
+        return new CompletionStageWorker<>(stage);
+    }
+
+    /**
+     * Returns a future that will be completed once all given workers are finished.
+     * If one of the workers fails or is cancelled the future completes exceptionally.
+     *
+     * @param workers the workers
+     * @return the future
+     * @see java.util.concurrent.CompletableFuture#allOf(CompletableFuture[])
+     */
+    public static CompletableFuture<Void> allOf(Worker<?>... workers) {
+        return CompletableFuture.allOf(toCompletableFutures(workers));
+    }
+
+    /**
+     * Returns a future that will be completed once any of the given workers is finished. The future is
+     * completed with the result of the first finished worker.
+     *
+     * @param workers the workers
+     * @return the future
+     * @see java.util.concurrent.CompletableFuture#anyOf(CompletableFuture[])
+     */
+    public static CompletableFuture<Object> anyOf(Worker<?>... workers) {
+        return CompletableFuture.anyOf(toCompletableFutures(workers));
+    }
+
+    private static CompletableFuture<?>[] toCompletableFutures(Worker<?>... workers) {
+        Assert.requireNonNull(workers, "workers");
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[workers.length];
+        for (int i = 0; i < workers.length; i++) {
+            futures[i] = toCompletableFuture(workers[i]);
+        }
+        return futures;
+    }
+
+    /**
+     * Calls the given consumer on the JavaFX Application Thread once the worker is finished. The listener that is
+     * needed for this removes itself once the worker is finished. If the worker is already finished the consumer
+     * is called directly.
+     * @param worker the worker
+     * @param consumer the consumer
+     * @param <T> the result type of the worker
+     */
+    public static <T> void onFinished(Worker<T> worker, Consumer<Worker<T>> consumer) {
+        Assert.requireNonNull(worker, "worker");
+        if (!DispatchThreadManager.getDispatchThread().isDispatchThread()) {
+            DispatchThreadManager.getDispatchThread().execute(() -> onFinished(worker, consumer));
+            return;
+        }
+        if (isFinished(worker.getState())) {
+            consumer.accept(worker);
+            return;
+        }
+        worker.stateProperty().addListener(new ChangeListener<Worker.State>() {
+            @Override
+            public void changed(ObservableValue<? extends Worker.State> observable, Worker.State oldValue, Worker.State newValue) {
+                if (isFinished(newValue)) {
+                    observable.removeListener(this);
+                    consumer.accept(worker);
+                }
+            }
+        });
+    }
+
+    static boolean isFinished(Worker.State state) {
+        return state != null && (state.equals(Worker.State.CANCELLED) || state.equals(Worker.State.FAILED) || state.equals(Worker.State.SUCCEEDED));
     }
 
     /**
      * Returns a property that defines the state of the given worker. Once the worker is done the value of the
-     * property will be set to true
+     * property will be set to true.
+     * The worker only holds a weak reference to the listener that updates the property. If the worker is a
+     * {@link javafx.concurrent.Task} the listener is removed once the task is done since a task can't be restarted.
      * @param worker the worker
      * @return the property
      */
     public static ReadOnlyBooleanProperty createIsDoneProperty(Worker<?> worker) {
-        final BooleanProperty property = new SimpleBooleanProperty();
-        Consumer<Worker.State> stateChecker = (s) -> {
-            if (s.equals(Worker.State.CANCELLED) || s.equals(Worker.State.FAILED) || s.equals(Worker.State.SUCCEEDED)) {
-                property.setValue(true);
-            } else {
-                property.setValue(false);
+        return new WorkerDoneProperty(worker);
+    }
+
+    private static class WorkerDoneProperty extends ReadOnlyBooleanWrapper implements ChangeListener<Worker.State> {
+
+        private final WeakChangeListener<Worker.State> weakListener;
+
+        private final boolean singleShot;
+
+        private WorkerDoneProperty(Worker<?> worker) {
+            super(worker, "done", isFinished(worker.getState()));
+            this.singleShot = worker instanceof Task;
+            this.weakListener = new WeakChangeListener<>(this);
+            if (!(singleShot && get())) {
+                worker.stateProperty().addListener(weakListener);
             }
-        };
-        worker.stateProperty().addListener((o, oldValue, newValue) -> stateChecker.accept(newValue));
-        stateChecker.accept(worker.getState());
-        return property;
+        }
 
+        @Override
+        public void changed(ObservableValue<? extends Worker.State> observable, Worker.State oldValue, Worker.State newValue) {
+            boolean done = isFinished(newValue);
+            set(done);
+            if (done && singleShot) {
+                observable.removeListener(weakListener);
+            }
+        }
     }
 
     /**
      * This methods blocks until the worker is done and returns the result value of the worker.
-     * If the worker was canceled an exception will be thrown.
+     * If the worker was canceled an exception will be thrown. If the worker failed null is returned since a failed
+     * worker has no value. Use {@link #waitForResult(Worker)} to receive the exception of a failed worker.
      *
      * @param worker The worker
      * @param <T> result type of the worker
-     * @return the result
+     * @return the result or null if the worker failed
      * @throws InterruptedException if the worker was canceled
      */
     public static <T> T waitFor(Worker<T> worker) throws InterruptedException {
-        Lock lock = new ReentrantLock();
-        Condition condition = lock.newCondition();
-        lock.lock();
         try {
-            ReadOnlyBooleanProperty doneProperty = createIsDoneProperty(worker);
-            if (doneProperty.get()) {
-                return worker.getValue();
-            } else {
-                doneProperty.addListener(e -> {
-                    boolean locked = lock.tryLock();
-                    if (locked) {
-                        try {
-                            condition.signal();
-                        } finally {
-                            lock.unlock();
-                        }
-                    } else {
-                        throw new RuntimeException("Concurreny Error");
-                    }
-                });
-                condition.await();
-                return worker.getValue();
-            }
-        } finally {
-            lock.unlock();
+            return toCompletableFuture(worker).get();
+        } catch (CancellationException e) {
+            throw new InterruptedException("Worker was cancelled");
+        } catch (ExecutionException e) {
+            return null;
         }
     }
+
+    /**
+     * This methods blocks until the worker is done and returns the result value of the worker. In contrast to
+     * {@link #waitFor(Worker)} the exception of a failed worker is thrown.
+     *
+     * @param worker The worker
+     * @param <T> result type of the worker
+     * @return the result
+     * @throws InterruptedException if the current thread was interrupted while waiting
+     * @throws ExecutionException if the worker failed. The cause is the exception of the worker.
+     * @throws CancellationException if the worker was canceled
+     */
+    public static <T> T waitForResult(Worker<T> worker) throws InterruptedException, ExecutionException {
+        return toCompletableFuture(worker).get();
+    }
 }
@@ -0,0 +1,466 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import java.util.Arrays;
+
+/**
+ * A B+ tree that stores a sequence of elements. Each inner node knows the number of elements in its subtree, so an
+ * element can be found by its position in O(log n). Elements are stored in leaves of up to {@link #MAX_LEAF_SIZE}
+ * elements. Adjacent nodes are merged whenever they fit into one node, so all nodes are half full on average.
+ *
+ * A snapshot of the tree can be created in O(1) by {@link #snapshot()}. Each node knows the edit in which it was
+ * created and is only modified in place by this edit. Creating a snapshot starts a new edit, so all nodes that are
+ * reachable by the snapshot are copied before they are modified the next time. By doing so the snapshot and the tree
+ * share all nodes that weren't modified after the snapshot was created.
+ */
+final class CountedBTree {
+
+    static final int MAX_LEAF_SIZE = 512;
+
+    static final int MAX_CHILDREN = 64;
+
+    private Node root;
+
+    private Object edit;
+
+    CountedBTree() {
+        this.edit = new Object();
+        clear();
+    }
+
+    private CountedBTree(final Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns a read only copy of the tree. The copy won't change if this tree is modified and can be read by any
+     * thread once it is published safely.
+     *
+     * @return the copy
+     */
+    CountedBTree snapshot() {
+        CountedBTree snapshot = new CountedBTree(root);
+        edit = new Object();
+        return snapshot;
+    }
+
+    int size() {
+        return root.size;
+    }
+
+    Object get(final int index) {
+        return root.get(index);
+    }
+
+    Object set(final int index, final Object element) {
+        return editableRoot().set(index, element, edit);
+    }
+
+    void insert(final int index, final Object[] elements, final int from, final int length) {
+        if (length == 0) {
+            return;
+        }
+        Node[] extra = editableRoot().insert(index, elements, from, length, edit);
+        if (extra != null) {
+            Node[] nodes = new Node[extra.length + 1];
+            nodes[0] = root;
+            System.arraycopy(extra, 0, nodes, 1, extra.length);
+            while (nodes.length > 1) {
+                nodes = Inner.build(nodes, nodes.length, edit);
+            }
+            root = nodes[0];
+        }
+    }
+
+    void removeRange(final int from, final int to) {
+        if (from == to) {
+            return;
+        }
+        editableRoot().removeRange(from, to, edit);
+        while (root instanceof Inner && ((Inner) root).count == 1) {
+            root = ((Inner) root).children[0];
+        }
+        if (root.size == 0) {
+            clear();
+        }
+    }
+
+    void copyRange(final int from, final int to, final Object[] destination, final int destinationIndex) {
+        if (from < to) {
+            root.copyRange(from, to, destination, destinationIndex);
+        }
+    }
+
+    void clear() {
+        if (edit == null) {
+            throw new UnsupportedOperationException("A snapshot can't be modified");
+        }
+        root = new Leaf(new Object[MAX_LEAF_SIZE], 0, edit);
+    }
+
+    private Node editableRoot() {
+        if (edit == null) {
+            throw new UnsupportedOperationException("A snapshot can't be modified");
+        }
+        if (root.owner != edit) {
+            root = root.copy(edit);
+        }
+        return root;
+    }
+
+    private static int pieceCount(final int total, final int max) {
+        return Math.max(2, (total + max - 1) / max);
+    }
+
+    private abstract static class Node {
+
+        final Object owner;
+
+        int size;
+
+        Node(final Object owner) {
+            this.owner = owner;
+        }
+
+        abstract Node copy(Object edit);
+
+        abstract Object get(int index);
+
+        abstract Object set(int index, Object element, Object edit);
+
+        /**
+         * Inserts the elements and returns the nodes that must be added behind this node or null
+         */
+        abstract Node[] insert(int index, Object[] elements, int from, int length, Object edit);
+
+        abstract void removeRange(int from, int to, Object edit);
+
+        abstract void copyRange(int from, int to, Object[] destination, int destinationIndex);
+    }
+
+    private static final class Leaf extends Node {
+
+        private Object[] items;
+
+        Leaf(final Object[] items, final int size, final Object owner) {
+            super(owner);
+            this.items = items;
+            this.size = size;
+        }
+
+        @Override
+        Node copy(final Object edit) {
+            return new Leaf(items.clone(), size, edit);
+        }
+
+        @Override
+        Object get(final int index) {
+            return items[index];
+        }
+
+        @Override
+        Object set(final int index, final Object element, final Object edit) {
+            Object old = items[index];
+            items[index] = element;
+            return old;
+        }
+
+        @Override
+        Node[] insert(final int index, final Object[] elements, final int from, final int length, final Object edit) {
+            int total = size + length;
+            if (total <= MAX_LEAF_SIZE) {
+                System.arraycopy(items, index, items, index + length, size - index);
+                System.arraycopy(elements, from, items, index, length);
+                size = total;
+                return null;
+            }
+            Object[] all = new Object[total];
+            System.arraycopy(items, 0, all, 0, index);
+            System.arraycopy(elements, from, all, index, length);
+            System.arraycopy(items, index, all, index + length, size - index);
+            int pieces = pieceCount(total, MAX_LEAF_SIZE);
+            Node[] extra = new Node[pieces - 1];
+            int start = 0;
+            for (int p = 0; p < pieces; p++) {
+                int end = (int) ((long) total * (p + 1) / pieces);
+                Object[] pieceItems = new Object[MAX_LEAF_SIZE];
+                System.arraycopy(all, start, pieceItems, 0, end - start);
+                if (p == 0) {
+                    items = pieceItems;
+                    size = end - start;
+                } else {
+                    extra[p - 1] = new Leaf(pieceItems, end - start, edit);
+                }
+                start = end;
+            }
+            return extra;
+        }
+
+        @Override
+        void removeRange(final int from, final int to, final Object edit) {
+            System.arraycopy(items, to, items, from, size - to);
+            int newSize = size - (to - from);
+            Arrays.fill(items, newSize, size, null);
+            size = newSize;
+        }
+
+        @Override
+        void copyRange(final int from, final int to, final Object[] destination, final int destinationIndex) {
+            System.arraycopy(items, from, destination, destinationIndex, to - from);
+        }
+    }
+
+    private static final class Inner extends Node {
+
+        private final Node[] children;
+
+        // sizes of the children, kept in an array so that a lookup doesn't touch every child
+        private final int[] sizes;
+
+        private int count;
+
+        Inner(final Node[] children, final int count, final Object owner) {
+            this(children, new int[MAX_CHILDREN], count, owner);
+            updateSizes();
+        }
+
+        private Inner(final Node[] children, final int[] sizes, final int count, final Object owner) {
+            super(owner);
+            this.children = children;
+            this.sizes = sizes;
+            this.count = count;
+        }
+
+        /**
+         * Creates inner nodes with at most {@link #MAX_CHILDREN} children for the given nodes
+         */
+        static Node[] build(final Node[] nodes, final int length, final Object edit) {
+            int pieces = (length + MAX_CHILDREN - 1) / MAX_CHILDREN;
+            Node[] result = new Node[pieces];
+            int start = 0;
+            for (int p = 0; p < pieces; p++) {
+                int end = (int) ((long) length * (p + 1) / pieces);
+                Node[] pieceChildren = new Node[MAX_CHILDREN];
+                System.arraycopy(nodes, start, pieceChildren, 0, end - start);
+                result[p] = new Inner(pieceChildren, end - start, edit);
+                start = end;
+            }
+            return result;
+        }
+
+        @Override
+        Node copy(final Object edit) {
+            Inner copy = new Inner(children.clone(), sizes.clone(), count, edit);
+            copy.size = size;
+            return copy;
+        }
+
+        private void updateSizes() {
+            size = 0;
+            for (int i = 0; i < count; i++) {
+                sizes[i] = children[i].size;
+                size += sizes[i];
+            }
+        }
+
+        private Node editableChild(final int index, final Object edit) {
+            Node child = children[index];
+            if (child.owner != edit) {
+                child = child.copy(edit);
+                children[index] = child;
+            }
+            return child;
+        }
+
+        @Override
+        Object get(int index) {
+            for (int i = 0; i < count; i++) {
+                if (index < sizes[i]) {
+                    return children[i].get(index);
+                }
+                index -= sizes[i];
+            }
+            throw new IndexOutOfBoundsException();
+        }
+
+        @Override
+        Object set(int index, final Object element, final Object edit) {
+            for (int i = 0; i < count; i++) {
+                if (index < sizes[i]) {
+                    return editableChild(i, edit).set(index, element, edit);
+                }
+                index -= sizes[i];
+            }
+            throw new IndexOutOfBoundsException();
+        }
+
+        @Override
+        Node[] insert(int index, final Object[] elements, final int from, final int length, final Object edit) {
+            int i = 0;
+            while (i < count - 1 && index > sizes[i]) {
+                index -= sizes[i];
+                i++;
+            }
+            Node child = editableChild(i, edit);
+            Node[] extra = child.insert(index, elements, from, length, edit);
+            size += length;
+            sizes[i] = child.size;
+            if (extra == null) {
+                return null;
+            }
+            int total = count + extra.length;
+            if (total <= MAX_CHILDREN) {
+                System.arraycopy(children, i + 1, children, i + 1 + extra.length, count - i - 1);
+                System.arraycopy(extra, 0, children, i + 1, extra.length);
+                count = total;
+                updateSizes();
+                return null;
+            }
+            Node[] all = new Node[total];
+            System.arraycopy(children, 0, all, 0, i + 1);
+            System.arraycopy(extra, 0, all, i + 1, extra.length);
+            System.arraycopy(children, i + 1, all, i + 1 + extra.length, count - i - 1);
+            int pieces = pieceCount(total, MAX_CHILDREN);
+            Node[] result = new Node[pieces - 1];
+            int start = 0;
+            for (int p = 0; p < pieces; p++) {
+                int end = (int) ((long) total * (p + 1) / pieces);
+                if (p == 0) {
+                    Arrays.fill(children, null);
+                    System.arraycopy(all, start, children, 0, end - start);
+                    count = end - start;
+                    updateSizes();
+                } else {
+                    Node[] pieceChildren = new Node[MAX_CHILDREN];
+                    System.arraycopy(all, start, pieceChildren, 0, end - start);
+                    result[p - 1] = new Inner(pieceChildren, end - start, edit);
+                }
+                start = end;
+            }
+            return result;
+        }
+
+        @Override
+        void removeRange(final int from, final int to, final Object edit) {
+            int offset = 0;
+            int first = -1;
+            int last = -1;
+            for (int i = 0; i < count && offset < to; i++) {
+                int childEnd = offset + sizes[i];
+                if (childEnd > from) {
+                    int start = Math.max(from, offset) - offset;
+                    int end = Math.min(to, childEnd) - offset;
+                    if (start == 0 && end == sizes[i]) {
+                        sizes[i] = 0;
+                    } else {
+                        Node child = editableChild(i, edit);
+                        child.removeRange(start, end, edit);
+                        sizes[i] = child.size;
+                    }
+                    if (first < 0) {
+                        first = i;
+                    }
+                    last = i;
+                }
+                offset = childEnd;
+            }
+            size -= to - from;
+            compact(Math.max(0, first - 1), Math.min(count - 1, last + 1), edit);
+        }
+
+        /**
+         * Removes empty children and merges adjacent children that fit into one node. Only the children between
+         * {@code first} and {@code last} are checked since all other children weren't modified.
+         */
+        private void compact(final int first, final int last, final Object edit) {
+            int newCount = first;
+            for (int i = first; i <= last; i++) {
+                if (sizes[i] == 0) {
+                    continue;
+                }
+                if (newCount > 0 && merge(newCount - 1, children[i], sizes[i], edit)) {
+                    continue;
+                }
+                children[newCount] = children[i];
+                sizes[newCount] = sizes[i];
+                newCount++;
+            }
+            int removed = last + 1 - newCount;
+            if (removed > 0) {
+                System.arraycopy(children, last + 1, children, newCount, count - last - 1);
+                System.arraycopy(sizes, last + 1, sizes, newCount, count - last - 1);
+                Arrays.fill(children, count - removed, count, null);
+                count -= removed;
+            }
+        }
+
+        /**
+         * Merges the source node into the child at the given index if both fit into one node
+         */
+        private boolean merge(final int index, final Node source, final int sourceSize, final Object edit) {
+            Node target = children[index];
+            if (target instanceof Leaf && source instanceof Leaf) {
+                if (sizes[index] + sourceSize > MAX_LEAF_SIZE) {
+                    return false;
+                }
+                Leaf leaf = (Leaf) editableChild(index, edit);
+                System.arraycopy(((Leaf) source).items, 0, leaf.items, leaf.size, sourceSize);
+                leaf.size += sourceSize;
+            } else if (target instanceof Inner && source instanceof Inner) {
+                Inner other = (Inner) source;
+                if (((Inner) target).count + other.count > MAX_CHILDREN) {
+                    return false;
+                }
+                Inner inner = (Inner) editableChild(index, edit);
+                System.arraycopy(other.children, 0, inner.children, inner.count, other.count);
+                System.arraycopy(other.sizes, 0, inner.sizes, inner.count, other.count);
+                inner.count += other.count;
+                inner.size += other.size;
+            } else {
+                return false;
+            }
+            sizes[index] = children[index].size;
+            return true;
+        }
+
+        @Override
+        void copyRange(final int from, final int to, final Object[] destination, int destinationIndex) {
+            int offset = 0;
+            for (int i = 0; i < count && offset < to; i++) {
+                int childEnd = offset + sizes[i];
+                if (childEnd > from) {
+                    int start = Math.max(from, offset) - offset;
+                    int end = Math.min(to, childEnd) - offset;
+                    children[i].copyRange(start, end, destination, destinationIndex);
+                    destinationIndex += end - start;
+                }
+                offset = childEnd;
+            }
+        }
+    }
+}
@@ -0,0 +1,439 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import io.datafx.core.ExceptionHandler;
+import javafx.beans.InvalidationListener;
+import javafx.collections.ObservableList;
+import javafx.scene.chart.ValueAxis;
+import javafx.scene.chart.XYChart;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Feeds a time series with a high number of points into a {@link javafx.scene.chart.XYChart.Series}. The raw points
+ * are stored in primitive arrays and can be added from any thread. Only a decimated version of the points in the
+ * visible range of the x axis is shown by the series: whenever points are added or the range or the width of the axis
+ * changes the visible points are decimated by the executor to about one or two points per pixel. Only the result is
+ * published to the series on the JavaFX Application Thread. The data items of the series are reused, so the chart
+ * doesn't create new nodes for each update. For best performance the animation of the chart should be disabled.
+ *
+ * The raw points are decimated where they are stored, no copy of them is created. Threads that add points don't wait
+ * while the visible points are decimated: the decimation only reads the points that were added before it started and
+ * new points are written behind them. If old points are removed or the feed is cleared while the arrays are read, the
+ * remaining points are moved to a second pair of arrays, which is reused by later swaps.
+ *
+ * The x values of the points must be added in ascending order. A batch of points that isn't in ascending order is
+ * rejected completely.
+ *
+ * Usage:
+ * <tt>
+ * DecimatingSeriesFeed feed = new DecimatingSeriesFeed(series, xAxis);
+ * // in any thread
+ * feed.append(System.currentTimeMillis(), value);
+ * </tt>
+ */
+public class DecimatingSeriesFeed implements Publisher<XYChart.Data<Number, Number>> {
+
+    /**
+     * Defines how the points of the series are decimated
+     */
+    public enum Mode {
+
+        /**
+         * Largest-Triangle-Three-Buckets: one point per pixel that keeps the visual shape of the series
+         */
+        LTTB,
+
+        /**
+         * The points with the minimum and the maximum y value per pixel, all peaks of the series stay visible
+         */
+        MIN_MAX
+    }
+
+    /**
+     * The default number of raw points that are held. If more points are added the oldest points are removed. If one
+     * batch contains more points only its last points are held.
+     */
+    public static final int DEFAULT_MAX_POINTS = 10_000_000;
+
+    /**
+     * The number of buckets that is used as long as the axis has no width
+     */
+    public static final int DEFAULT_BUCKET_COUNT = 1_000;
+
+    private final XYChart.Series<Number, Number> series;
+
+    private final ValueAxis<Number> xAxis;
+
+    private final Mode mode;
+
+    private final int maxPoints;
+
+    private final Executor executor;
+
+    private final ExceptionHandler exceptionHandler;
+
+    private final Object lock = new Object();
+
+    private double[] xValues;
+
+    private double[] yValues;
+
+    private int size;
+
+    /**
+     * The x values that are read by the running decimation, null if no decimation is running. The y values are always
+     * swapped together with them.
+     */
+    private double[] readXValues;
+
+    /**
+     * Arrays that were read by a decimation and can be reused once the points must be moved again
+     */
+    private double[] spareXValues;
+
+    private double[] spareYValues;
+
+    private final AtomicBoolean updateScheduled;
+
+    private boolean computing;
+
+    private boolean dirty;
+
+    public DecimatingSeriesFeed(final XYChart.Series<Number, Number> series, final ValueAxis<Number> xAxis) {
+        this(series, xAxis, Mode.LTTB);
+    }
+
+    public DecimatingSeriesFeed(final XYChart.Series<Number, Number> series, final ValueAxis<Number> xAxis, final Mode mode) {
+        this(series, xAxis, mode, DEFAULT_MAX_POINTS, ObservableExecutor.getDefaultInstance(), ExceptionHandler.getDefaultInstance());
+    }
+
+    /**
+     * Creates a new feed. Must be called on the JavaFX Application Thread.
+     *
+     * @param series           the series that shows the decimated points
+     * @param xAxis            the x axis of the chart that shows the series
+     * @param mode             the decimation algorithm
+     * @param maxPoints        the number of raw points that are held
+     * @param executor         the executor that decimates the points
+     * @param exceptionHandler handler for exceptions that are thrown while the points are decimated
+     */
+    public DecimatingSeriesFeed(final XYChart.Series<Number, Number> series, final ValueAxis<Number> xAxis, final Mode mode,
+                                final int maxPoints, final Executor executor, final ExceptionHandler exceptionHandler) {
+        if (maxPoints < 2) {
+            throw new IllegalArgumentException("maxPoints must be > 1");
+        }
+        this.series = Assert.requireNonNull(series, "series");
+        this.xAxis = Assert.requireNonNull(xAxis, "xAxis");
+        this.mode = Assert.requireNonNull(mode, "mode");
+        this.maxPoints = maxPoints;
+        this.executor = Assert.requireNonNull(executor, "executor");
+        this.exceptionHandler = Assert.requireNonNull(exceptionHandler, "exceptionHandler");
+        this.xValues = new double[Math.min(1024, maxPoints)];
+        this.yValues = new double[xValues.length];
+        this.updateScheduled = new AtomicBoolean(false);
+        InvalidationListener axisListener = o -> invalidate();
+        xAxis.lowerBoundProperty().addListener(axisListener);
+        xAxis.upperBoundProperty().addListener(axisListener);
+        xAxis.autoRangingProperty().addListener(axisListener);
+        xAxis.widthProperty().addListener(axisListener);
+    }
+
+    /**
+     * Adds a point. Can be called from any thread.
+     *
+     * @param x the x value
+     * @param y the y value
+     */
+    public void append(final double x, final double y) {
+        synchronized (lock) {
+            checkOrder(x);
+            ensureCapacity(1);
+            xValues[size] = x;
+            yValues[size++] = y;
+        }
+        dataChanged();
+    }
+
+    /**
+     * Adds points. Can be called from any thread. The points are only added if all of them are in ascending order. If
+     * there are more points than the feed holds only the last points are added.
+     *
+     * @param x      the x values
+     * @param y      the y values
+     * @param offset index of the first point in the arrays
+     * @param length number of points
+     * @throws IndexOutOfBoundsException if the range doesn't fit into one of the arrays
+     * @throws IllegalArgumentException  if the x values aren't in ascending order
+     */
+    public void append(final double[] x, final double[] y, final int offset, final int length) {
+        Assert.requireNonNull(x, "x");
+        Assert.requireNonNull(y, "y");
+        Objects.checkFromIndexSize(offset, length, x.length);
+        Objects.checkFromIndexSize(offset, length, y.length);
+        if (length == 0) {
+            return;
+        }
+        for (int i = offset + 1; i < offset + length; i++) {
+            if (x[i] < x[i - 1]) {
+                throw new IllegalArgumentException("x values must be added in ascending order");
+            }
+        }
+        final int count = Math.min(length, maxPoints);
+        final int first = offset + length - count;
+        synchronized (lock) {
+            checkOrder(x[offset]);
+            ensureCapacity(count);
+            System.arraycopy(x, first, xValues, size, count);
+            System.arraycopy(y, first, yValues, size, count);
+            size += count;
+        }
+        dataChanged();
+    }
+
+    /**
+     * Adds points. Can be called from any thread.
+     *
+     * @param values the points
+     */
+    @Override
+    @SafeVarargs
+    public final void publish(final XYChart.Data<Number, Number>... values) {
+        double[] x = new double[values.length];
+        double[] y = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            x[i] = values[i].getXValue().doubleValue();
+            y[i] = values[i].getYValue().doubleValue();
+        }
+        append(x, y, 0, values.length);
+    }
+
+    /**
+     * Removes all points. Can be called from any thread.
+     */
+    public void clear() {
+        synchronized (lock) {
+            removeFirst(size);
+        }
+        dataChanged();
+    }
+
+    /**
+     * Returns the number of raw points
+     *
+     * @return the number of points
+     */
+    public int size() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+
+    private void checkOrder(final double x) {
+        if (size > 0 && x < xValues[size - 1]) {
+            throw new IllegalArgumentException("x values must be added in ascending order");
+        }
+    }
+
+    private void ensureCapacity(final int additional) {
+        if (size + additional > maxPoints) {
+            removeFirst(Math.min(size, Math.max(size + additional - maxPoints, maxPoints / 4)));
+        }
+        if (size + additional > xValues.length) {
+            int capacity = (int) Math.min(maxPoints, Math.max((long) xValues.length * 2, size + additional));
+            xValues = Arrays.copyOf(xValues, capacity);
+            yValues = Arrays.copyOf(yValues, capacity);
+        }
+    }
+
+    /**
+     * Removes the oldest points. The remaining points are moved within the arrays unless the running decimation reads
+     * them. In that case they are moved to other arrays and the decimation keeps reading the old ones.
+     */
+    private void removeFirst(final int count) {
+        double[] targetX = xValues;
+        double[] targetY = yValues;
+        if (xValues == readXValues) {
+            if (spareXValues != null && spareXValues.length == xValues.length) {
+                targetX = spareXValues;
+                targetY = spareYValues;
+            } else {
+                targetX = new double[xValues.length];
+                targetY = new double[yValues.length];
+            }
+            spareXValues = null;
+            spareYValues = null;
+        }
+        System.arraycopy(xValues, count, targetX, 0, size - count);
+        System.arraycopy(yValues, count, targetY, 0, size - count);
+        xValues = targetX;
+        yValues = targetY;
+        size -= count;
+    }
+
+    private void dataChanged() {
+        if (updateScheduled.compareAndSet(false, true)) {
+            DispatchThreadManager.getDispatchThread().execute(() -> {
+                updateScheduled.set(false);
+                invalidate();
+            });
+        }
+    }
+
+    private void invalidate() {
+        if (computing) {
+            dirty = true;
+        } else {
+            startUpdate();
+        }
+    }
+
+    private void startUpdate() {
+        computing = true;
+        dirty = false;
+        final boolean fullRange = xAxis.isAutoRanging();
+        final double lowerBound = xAxis.getLowerBound();
+        final double upperBound = xAxis.getUpperBound();
+        final int buckets = xAxis.getWidth() > 0 ? (int) Math.ceil(xAxis.getWidth()) : DEFAULT_BUCKET_COUNT;
+        executor.execute(() -> {
+            final double[] x;
+            final double[] y;
+            final int available;
+            synchronized (lock) {
+                x = xValues;
+                y = yValues;
+                available = size;
+                readXValues = x;
+            }
+            final double[] outX;
+            final double[] outY;
+            final int count;
+            try {
+                int from = 0;
+                int to = available;
+                if (!fullRange) {
+                    from = Math.max(0, firstIndexNotBelow(x, available, lowerBound) - 1);
+                    to = Math.max(from, Math.min(available, firstIndexAbove(x, available, upperBound) + 1));
+                }
+                outX = new double[Math.min(to - from, 2 * buckets + 2)];
+                outY = new double[outX.length];
+                count = mode == Mode.LTTB
+                        ? TimeSeriesDecimation.lttb(x, y, from, to - from, buckets, outX, outY)
+                        : TimeSeriesDecimation.minMax(x, y, from, to - from, buckets, outX, outY);
+            } catch (RuntimeException e) {
+                release(x, y);
+                DispatchThreadManager.getDispatchThread().execute(() -> {
+                    computing = false;
+                    exceptionHandler.setException(e);
+                    if (dirty) {
+                        startUpdate();
+                    }
+                });
+                return;
+            }
+            release(x, y);
+            DispatchThreadManager.getDispatchThread().execute(() -> publishPoints(outX, outY, count));
+        });
+    }
+
+    /**
+     * Called once the decimation doesn't read the given arrays anymore. Must be called before the next update can be
+     * started. If the points were moved to other arrays in the meantime the arrays are kept for the next swap.
+     */
+    private void release(final double[] x, final double[] y) {
+        synchronized (lock) {
+            if (xValues != x && x.length == xValues.length) {
+                spareXValues = x;
+                spareYValues = y;
+            }
+            readXValues = null;
+        }
+    }
+
+    private static int firstIndexNotBelow(final double[] x, final int size, final double value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (x[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int firstIndexAbove(final double[] x, final int size, final double value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (x[mid] <= value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void publishPoints(final double[] x, final double[] y, final int count) {
+        PlatformProfiler.Measurement measurement = PlatformProfiler.getInstance().start("DecimatingSeriesFeed publish");
+        try {
+            ObservableList<XYChart.Data<Number, Number>> data = series.getData();
+            int reused = Math.min(count, data.size());
+            for (int i = 0; i < reused; i++) {
+                XYChart.Data<Number, Number> point = data.get(i);
+                point.setXValue(x[i]);
+                point.setYValue(y[i]);
+            }
+            if (count > data.size()) {
+                List<XYChart.Data<Number, Number>> added = new ArrayList<>(count - reused);
+                for (int i = reused; i < count; i++) {
+                    added.add(new XYChart.Data<>(x[i], y[i]));
+                }
+                data.addAll(added);
+            } else if (count < data.size()) {
+                data.remove(count, data.size());
+            }
+        } finally {
+            measurement.close();
+            computing = false;
+        }
+        if (dirty) {
+            startUpdate();
+        }
+    }
+}
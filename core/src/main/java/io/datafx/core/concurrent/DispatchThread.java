@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Defines the thread that is used by DataFX for all work that must be executed on a UI or event thread. By default
+ * the JavaFX Application Thread is used (see {@link io.datafx.core.concurrent.PlatformDispatcher}). Applications that
+ * use the concurrency API of DataFX without a running JavaFX toolkit, for example in headless batch workers or
+ * benchmarks, can use an {@link io.datafx.core.concurrent.EventLoopDispatchThread} instead.
+ *
+ * @see io.datafx.core.concurrent.DispatchThreadManager
+ */
+public interface DispatchThread extends Executor {
+
+    /**
+     * Executes the given runnable on the dispatch thread at some time in the future. This method can be called from
+     * any thread and never blocks.
+     *
+     * @param runnable the runnable
+     */
+    @Override
+    void execute(Runnable runnable);
+
+    /**
+     * Returns true if the calling thread is the dispatch thread
+     *
+     * @return true if the calling thread is the dispatch thread
+     */
+    boolean isDispatchThread();
+
+    /**
+     * Returns the executor that is used for work that isn't urgent and should only be executed on the dispatch thread
+     * when it is idle. By default the dispatch thread itself is returned.
+     *
+     * @return the executor for idle work
+     * @see ThreadType#IDLE
+     */
+    default Executor getIdleExecutor() {
+        return this;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+
+/**
+ * Holds the {@link io.datafx.core.concurrent.DispatchThread} that is used by DataFX. By default the
+ * {@link io.datafx.core.concurrent.PlatformDispatcher} is used.
+ *
+ * @see io.datafx.core.concurrent.DispatchThread
+ */
+public class DispatchThreadManager {
+
+    private static volatile DispatchThread dispatchThread;
+
+    private DispatchThreadManager() {}
+
+    /**
+     * Returns the dispatch thread that is used by DataFX
+     *
+     * @return the dispatch thread
+     */
+    public static DispatchThread getDispatchThread() {
+        DispatchThread current = dispatchThread;
+        if (current == null) {
+            return PlatformDispatcher.getInstance();
+        }
+        return current;
+    }
+
+    /**
+     * Defines the dispatch thread that is used by DataFX. The dispatch thread should be defined before any other
+     * DataFX API is used.
+     *
+     * @param dispatchThread the dispatch thread
+     */
+    public static void setDispatchThread(final DispatchThread dispatchThread) {
+        DispatchThreadManager.dispatchThread = Assert.requireNonNull(dispatchThread, "dispatchThread");
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link io.datafx.core.concurrent.DispatchThread} that executes all runnables in one dedicated daemon thread.
+ * The event loop can be used instead of the JavaFX Application Thread if DataFX is used without a JavaFX toolkit.
+ *
+ * Usage:
+ * <tt>
+ * DispatchThreadManager.setDispatchThread(new EventLoopDispatchThread());
+ * </tt>
+ */
+public class EventLoopDispatchThread implements DispatchThread {
+
+    private static final Logger LOGGER = Logger.getLogger(EventLoopDispatchThread.class.getName());
+
+    private final BlockingQueue<Runnable> queue;
+
+    private final Thread thread;
+
+    private volatile boolean running;
+
+    public EventLoopDispatchThread() {
+        this("DataFX event loop");
+    }
+
+    /**
+     * Creates and starts a new event loop
+     *
+     * @param name the name of the thread of the event loop
+     */
+    public EventLoopDispatchThread(final String name) {
+        this.queue = new LinkedBlockingQueue<>();
+        this.running = true;
+        this.thread = new Thread(this::loop, Assert.requireNonNull(name, "name"));
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void execute(final Runnable runnable) {
+        Assert.requireNonNull(runnable, "runnable");
+        if (!running) {
+            throw new IllegalStateException("Event loop is shut down");
+        }
+        queue.add(runnable);
+    }
+
+    @Override
+    public boolean isDispatchThread() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * Stops the event loop. Runnables that are already queued will still be executed.
+     */
+    public void shutdown() {
+        running = false;
+        queue.add(() -> {});
+    }
+
+    private void loop() {
+        try {
+            while (running || !queue.isEmpty()) {
+                Runnable runnable = queue.take();
+                try {
+                    runnable.run();
+                } catch (Throwable e) {
+                    LOGGER.log(Level.SEVERE, "Error in DataFX event loop", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            LOGGER.log(Level.FINE, "DataFX event loop was interrupted", e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import io.datafx.core.DataFXConfiguration;
+import javafx.animation.AnimationTimer;
+import javafx.util.Duration;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Scheduler for work that must be executed on the JavaFX Application Thread but isn't urgent. Tasks are only executed
+ * in the time that is left after a pulse was rendered and only as long as the idle budget of the frame isn't used up.
+ * If the pulse itself took longer than a frame or DataFX still has queued runnables for the
+ * {@link io.datafx.core.concurrent.PlatformDispatcher} no idle task will be executed in this frame.
+ * Long running work can be split in slices by using an {@link io.datafx.core.concurrent.IdleTask}.
+ *
+ * @see ThreadType#IDLE
+ */
+public final class IdleScheduler implements Executor {
+
+    private static final long FRAME_INTERVAL = 1_000_000_000L / 60;
+
+    private static IdleScheduler instance;
+
+    private final Queue<ScheduledIdleTask> incoming;
+
+    private final Deque<ScheduledIdleTask> tasks;
+
+    private final AtomicBoolean active;
+
+    private volatile long idleBudget;
+
+    private AnimationTimer pulseTimer;
+
+    private boolean idleRunScheduled;
+
+    private IdleScheduler() {
+        this.incoming = new ConcurrentLinkedQueue<>();
+        this.tasks = new ArrayDeque<>();
+        this.active = new AtomicBoolean(false);
+        this.idleBudget = DataFXConfiguration.getInstance().getIdleSchedulerBudget() * 1_000_000L;
+    }
+
+    /**
+     * Returns the scheduler
+     *
+     * @return the scheduler
+     */
+    public static synchronized IdleScheduler getInstance() {
+        if (instance == null) {
+            instance = new IdleScheduler();
+        }
+        return instance;
+    }
+
+    /**
+     * Executes the given runnable on the JavaFX Application Thread once the thread is idle
+     *
+     * @param runnable the runnable
+     */
+    @Override
+    public void execute(final Runnable runnable) {
+        Assert.requireNonNull(runnable, "runnable");
+        submit(() -> {
+            runnable.run();
+            return false;
+        });
+    }
+
+    /**
+     * Schedules the given task. The slices of the task will be executed on the JavaFX Application Thread when the
+     * thread is idle. This method can be called from any thread.
+     *
+     * @param task the task
+     * @return a future that will be completed once the last slice of the task was executed
+     */
+    public CompletableFuture<Void> submit(final IdleTask task) {
+        ScheduledIdleTask scheduledTask = new ScheduledIdleTask(Assert.requireNonNull(task, "task"));
+        incoming.add(scheduledTask);
+        if (active.compareAndSet(false, true)) {
+            PlatformDispatcher.getInstance().execute(this::startPulseTimer);
+        }
+        return scheduledTask;
+    }
+
+    /**
+     * Defines how long idle tasks can be executed in one frame
+     *
+     * @param budget the time budget
+     */
+    public void setIdleBudget(final Duration budget) {
+        Assert.requireNonNull(budget, "budget");
+        this.idleBudget = (long) (budget.toMillis() * 1_000_000);
+    }
+
+    /**
+     * Returns how long idle tasks can be executed in one frame
+     *
+     * @return the time budget
+     */
+    public Duration getIdleBudget() {
+        return Duration.millis(idleBudget / 1_000_000.0);
+    }
+
+    private void startPulseTimer() {
+        if (pulseTimer == null) {
+            pulseTimer = new AnimationTimer() {
+                @Override
+                public void handle(final long now) {
+                    if (!idleRunScheduled) {
+                        idleRunScheduled = true;
+                        PlatformDispatcher.getInstance().execute(() -> runIdleTasks(now));
+                    }
+                }
+            };
+        }
+        pulseTimer.start();
+    }
+
+    private void runIdleTasks(final long frameStart) {
+        idleRunScheduled = false;
+        ScheduledIdleTask newTask;
+        while ((newTask = incoming.poll()) != null) {
+            tasks.add(newTask);
+        }
+        final long start = System.nanoTime();
+        final long budget = Math.min(idleBudget, FRAME_INTERVAL - (start - frameStart));
+        if (budget > 0 && !PlatformDispatcher.getInstance().hasQueuedRunnables()) {
+            final long deadline = start + budget;
+            while (!tasks.isEmpty() && System.nanoTime() - deadline < 0) {
+                ScheduledIdleTask task = tasks.peek();
+                if (!task.runSlice()) {
+                    tasks.poll();
+                }
+            }
+        }
+        if (tasks.isEmpty()) {
+            pulseTimer.stop();
+            active.set(false);
+            if (!incoming.isEmpty() && active.compareAndSet(false, true)) {
+                pulseTimer.start();
+            }
+        }
+    }
+
+    private static class ScheduledIdleTask extends CompletableFuture<Void> {
+
+        private final IdleTask task;
+
+        private ScheduledIdleTask(final IdleTask task) {
+            this.task = task;
+        }
+
+        private boolean runSlice() {
+            if (isDone()) {
+                return false;
+            }
+            try {
+                if (task.runSlice()) {
+                    return true;
+                }
+                complete(null);
+            } catch (Throwable e) {
+                completeExceptionally(e);
+            }
+            return false;
+        }
+    }
+}
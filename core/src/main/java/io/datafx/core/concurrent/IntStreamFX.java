@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import javafx.collections.ObservableIntegerArray;
+
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Primitive specialization of {@link io.datafx.core.concurrent.StreamFX} for a {@link java.util.stream.IntStream}.
+ * The values of the stream are collected in int[] chunks that are handed to the JavaFX platform thread in bulk.
+ * The values are never boxed and the chunk arrays are reused, so publishing doesn't allocate per value.
+ * If the platform thread can't keep up with the stream the thread that consumes the stream will be blocked.
+ *
+ * @see io.datafx.core.concurrent.StreamFX
+ */
+public class IntStreamFX {
+
+    private final IntStream stream;
+
+    private final int chunkSize;
+
+    private final int maxChunksInFlight;
+
+    /**
+     * Create a IntStreamFX as a wrapper of a IntStream
+     * @param stream the stream to wrap
+     */
+    public IntStreamFX(final IntStream stream) {
+        this(stream, StreamFX.DEFAULT_CHUNK_SIZE, StreamFX.DEFAULT_MAX_CHUNKS_IN_FLIGHT);
+    }
+
+    /**
+     * Create a IntStreamFX as a wrapper of a IntStream
+     * @param stream the stream to wrap
+     * @param chunkSize number of values that are handed to the platform thread by one call
+     * @param maxChunksInFlight number of chunks that can wait for the platform thread before the stream is blocked
+     */
+    public IntStreamFX(final IntStream stream, final int chunkSize, final int maxChunksInFlight) {
+        this.stream = Assert.requireNonNull(stream, "stream");
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be > 0");
+        }
+        if (maxChunksInFlight < 1) {
+            throw new IllegalArgumentException("maxChunksInFlight must be > 0");
+        }
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = maxChunksInFlight;
+    }
+
+    /**
+     * Publishes all values of the stream to a ObservableIntegerArray. The values are added on the JavaFX platform
+     * thread in chunks and in encounter order for streams that have a defined encounter order.
+     * @param array array to publish all values to
+     */
+    public void publish(final ObservableIntegerArray array) {
+        Assert.requireNonNull(array, "array");
+        forEachChunk((values, length) -> array.addAll(values, 0, length));
+    }
+
+    /**
+     * Hands all values of the stream to the given consumer in chunks. The consumer will be called on the JavaFX
+     * platform thread with an array and the number of valid values in the array. Values are passed in encounter
+     * order for streams that have a defined encounter order. The array is reused after the consumer returns, so the
+     * consumer must not keep a reference to it.
+     * @param chunkConsumer consumer for the chunks
+     */
+    public void forEachChunk(final ObjIntConsumer<int[]> chunkConsumer) {
+        Assert.requireNonNull(chunkConsumer, "chunkConsumer");
+        PrimitiveChunkedDispatch.OfInt dispatch = new PrimitiveChunkedDispatch.OfInt(chunkSize, maxChunksInFlight, "IntStreamFX forEachChunk", chunkConsumer);
+        stream.forEachOrdered(dispatch);
+        dispatch.flush();
+    }
+
+}
@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * An edit script that transforms one list into another. Elements of both lists are matched by a key. Matched
+ * elements that keep their relative order stay in the list, all other elements are removed or added. The matched
+ * elements that stay in the list are found as the longest increasing subsequence of their positions, like in a
+ * patience diff. Matched elements that aren't equal are replaced by the new element. The diff is calculated in
+ * O(n log n) and can be calculated in any thread.
+ *
+ * @param <T> type of the elements
+ * @see io.datafx.core.concurrent.ListDiffPublisher
+ */
+public final class ListDiff<T> {
+
+    private final List<T> newValues;
+
+    private final int[] removeRanges;
+
+    private final int[] addRanges;
+
+    private final int[] updates;
+
+    /**
+     * The ranges of old indices that are replaced by ranges of new indices in ascending order. Each change is
+     * described by four values: {@code oldFrom}, {@code oldTo}, {@code newFrom} and {@code newTo}. All indices
+     * between two changes belong to elements that are kept.
+     */
+    private final int[] changes;
+
+    private ListDiff(final List<T> newValues, final int[] removeRanges, final int[] addRanges, final int[] updates, final int[] changes) {
+        this.newValues = newValues;
+        this.removeRanges = removeRanges;
+        this.addRanges = addRanges;
+        this.updates = updates;
+        this.changes = changes;
+    }
+
+    /**
+     * Calculates the edit script that transforms {@code oldValues} into {@code newValues}
+     *
+     * @param oldValues    the old values
+     * @param newValues    the new values
+     * @param keyExtractor function that returns the key of an element. Elements with equal keys are treated as the
+     *                     same element.
+     * @param <T>          type of the elements
+     * @param <K>          type of the keys
+     * @return the edit script
+     */
+    public static <T, K> ListDiff<T> compute(final List<? extends T> oldValues, final List<? extends T> newValues, final Function<? super T, ? extends K> keyExtractor) {
+        Assert.requireNonNull(oldValues, "oldValues");
+        Assert.requireNonNull(newValues, "newValues");
+        Assert.requireNonNull(keyExtractor, "keyExtractor");
+        List<T> target = new ArrayList<>(newValues);
+        int oldSize = oldValues.size();
+        int newSize = target.size();
+
+        // For each key the first unmatched index in the new list, indices with the same key are chained
+        Map<K, Integer> firstIndex = new HashMap<>(Math.max(16, (int) (newSize / 0.75f) + 1));
+        int[] nextIndex = new int[newSize];
+        for (int j = newSize - 1; j >= 0; j--) {
+            Integer previous = firstIndex.put(keyExtractor.apply(target.get(j)), j);
+            nextIndex[j] = previous == null ? -1 : previous;
+        }
+        int[] match = new int[oldSize];
+        for (int i = 0; i < oldSize; i++) {
+            K key = keyExtractor.apply(oldValues.get(i));
+            Integer j = firstIndex.get(key);
+            if (j == null) {
+                match[i] = -1;
+            } else {
+                match[i] = j;
+                if (nextIndex[j] < 0) {
+                    firstIndex.remove(key);
+                } else {
+                    firstIndex.put(key, nextIndex[j]);
+                }
+            }
+        }
+
+        // Longest increasing subsequence of the matched positions
+        int[] tails = new int[oldSize];
+        int[] predecessor = new int[oldSize];
+        int length = 0;
+        for (int i = 0; i < oldSize; i++) {
+            if (match[i] < 0) {
+                continue;
+            }
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (match[tails[mid]] < match[i]) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            predecessor[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+        boolean[] keptOld = new boolean[oldSize];
+        boolean[] keptNew = new boolean[newSize];
+        int[] updates = new int[length];
+        int updateCount = 0;
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = predecessor[i]) {
+            keptOld[i] = true;
+            keptNew[match[i]] = true;
+            if (!Objects.equals(oldValues.get(i), target.get(match[i]))) {
+                updates[updateCount++] = match[i];
+            }
+        }
+        updates = Arrays.copyOf(updates, updateCount);
+        Arrays.sort(updates);
+        return new ListDiff<>(target, ranges(keptOld, true), ranges(keptNew, false), updates, changes(keptOld, keptNew));
+    }
+
+    /**
+     * Returns the ranges of old indices that are replaced by ranges of new indices as groups of {@code oldFrom},
+     * {@code oldTo}, {@code newFrom} and {@code newTo}. Since the kept elements are matched in order the ranges
+     * between two kept elements belong together.
+     */
+    private static int[] changes(final boolean[] keptOld, final boolean[] keptNew) {
+        int[] changes = new int[4 * (Math.min(keptOld.length, keptNew.length) + 1)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < keptOld.length || j < keptNew.length) {
+            if (i < keptOld.length && j < keptNew.length && keptOld[i] && keptNew[j]) {
+                i++;
+                j++;
+                continue;
+            }
+            int oldFrom = i;
+            int newFrom = j;
+            while (i < keptOld.length && !keptOld[i]) {
+                i++;
+            }
+            while (j < keptNew.length && !keptNew[j]) {
+                j++;
+            }
+            changes[count++] = oldFrom;
+            changes[count++] = i;
+            changes[count++] = newFrom;
+            changes[count++] = j;
+        }
+        return Arrays.copyOf(changes, count);
+    }
+
+    /**
+     * Returns the ranges of indices that aren't kept as pairs of {@code from} (inclusive) and {@code to} (exclusive)
+     */
+    private static int[] ranges(final boolean[] kept, final boolean descending) {
+        int[] ranges = new int[kept.length + 1];
+        int count = 0;
+        int i = 0;
+        while (i < kept.length) {
+            if (kept[i]) {
+                i++;
+                continue;
+            }
+            int from = i;
+            while (i < kept.length && !kept[i]) {
+                i++;
+            }
+            ranges[count++] = from;
+            ranges[count++] = i;
+        }
+        int[] result = Arrays.copyOf(ranges, count);
+        if (descending) {
+            for (int left = 0, right = count - 2; left < right; left += 2, right -= 2) {
+                int from = result[left];
+                int to = result[left + 1];
+                result[left] = result[right];
+                result[left + 1] = result[right + 1];
+                result[right] = from;
+                result[right + 1] = to;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Applies the edit script to the given list. The list must contain the old values that were used to calculate
+     * the script. Contiguous removals and additions are applied by one call. If the list is a
+     * {@link io.datafx.core.concurrent.TransactionalList} listeners of the list receive one change and a control that
+     * shows the list only updates its layout once. The lists of DataFX fire that change directly from the ranges of
+     * the script, other transactional lists apply the script in one transaction. Any other
+     * {@link javafx.collections.ObservableList} fires one change per operation.
+     *
+     * @param list the list
+     */
+    public void applyTo(final List<T> list) {
+        Assert.requireNonNull(list, "list");
+        if (list instanceof TransactionalListBase) {
+            ((TransactionalListBase<T>) list).applyChanges(changes, newValues, updates);
+        } else if (list instanceof TransactionalList) {
+            ((TransactionalList<T>) list).runInTransaction(() -> applyOperations(list));
+        } else {
+            applyOperations(list);
+        }
+    }
+
+    private void applyOperations(final List<T> list) {
+        for (int i = 0; i < removeRanges.length; i += 2) {
+            if (removeRanges[i + 1] - removeRanges[i] == 1) {
+                list.remove(removeRanges[i]);
+            } else if (list instanceof ObservableList) {
+                ((ObservableList<T>) list).remove(removeRanges[i], removeRanges[i + 1]);
+            } else {
+                list.subList(removeRanges[i], removeRanges[i + 1]).clear();
+            }
+        }
+        for (int i = 0; i < addRanges.length; i += 2) {
+            list.addAll(addRanges[i], newValues.subList(addRanges[i], addRanges[i + 1]));
+        }
+        for (int index : updates) {
+            list.set(index, newValues.get(index));
+        }
+    }
+
+    /**
+     * Returns the new values
+     *
+     * @return the new values
+     */
+    public List<T> getNewValues() {
+        return Collections.unmodifiableList(newValues);
+    }
+
+    /**
+     * Returns true if the script doesn't contain any operation
+     *
+     * @return true if both lists are equal
+     */
+    public boolean isEmpty() {
+        return getOperationCount() == 0;
+    }
+
+    /**
+     * Returns the number of list operations that are needed to apply the script
+     *
+     * @return the number of operations
+     */
+    public int getOperationCount() {
+        return removeRanges.length / 2 + addRanges.length / 2 + updates.length;
+    }
+}
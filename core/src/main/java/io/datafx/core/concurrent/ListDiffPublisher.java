@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Replaces the content of an {@link javafx.collections.ObservableList} by applying only the differences between the
+ * current and the new content. By doing so the selection, the scroll position and the cells of a control that shows
+ * the list are kept for all elements that are still part of the list. The differences are calculated by
+ * {@link io.datafx.core.concurrent.ListDiff} in the calling thread, only the resulting modifications are applied on
+ * the JavaFX Application Thread. The calling thread waits until the modifications are applied. If the list is a
+ * {@link io.datafx.core.concurrent.TransactionalList} all modifications are fired as one change, so a control that
+ * shows the list only updates its layout once.
+ *
+ * The differences are calculated against the content that was applied last. The first time the content of the list
+ * is copied on the JavaFX Application Thread and used instead. The publisher observes the list, if the list was
+ * modified by someone else since the content was applied all elements of the list are replaced by calling
+ * {@link javafx.collections.ObservableList#setAll(java.util.Collection)}.
+ *
+ * Usage:
+ * <tt>
+ * ListDiffPublisher&lt;Person, Long&gt; publisher = new ListDiffPublisher&lt;&gt;(table.getItems(), Person::getId);
+ * ProcessChain.create().addSupplierInExecutor(() -&gt; loadPersons()).addConsumerInExecutor(publisher).repeatInfinite(Duration.seconds(10));
+ * </tt>
+ *
+ * @param <T> type of the elements
+ * @param <K> type of the keys that identify an element
+ */
+public class ListDiffPublisher<T, K> implements Consumer<List<T>> {
+
+    private final ObservableList<T> list;
+
+    private final Function<? super T, ? extends K> keyExtractor;
+
+    private final ListChangeListener<T> modificationListener;
+
+    private volatile List<T> lastApplied;
+
+    private boolean applying;
+
+    private boolean modified;
+
+    /**
+     * Creates a new publisher
+     *
+     * @param list         the list that will be updated
+     * @param keyExtractor function that returns the key of an element. Elements with equal keys are treated as the
+     *                     same element.
+     */
+    public ListDiffPublisher(final ObservableList<T> list, final Function<? super T, ? extends K> keyExtractor) {
+        this.list = Assert.requireNonNull(list, "list");
+        this.keyExtractor = Assert.requireNonNull(keyExtractor, "keyExtractor");
+        this.modificationListener = c -> {
+            if (!applying) {
+                modified = true;
+            }
+        };
+    }
+
+    /**
+     * Calculates the differences between the content of the list and the given values and applies them on the JavaFX
+     * Application Thread. Waits until the list is updated.
+     *
+     * @param values the new content of the list
+     */
+    @Override
+    public void accept(final List<T> values) {
+        try {
+            publish(values);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while updating the list", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Can't update the list", e.getCause());
+        }
+    }
+
+    /**
+     * Calculates the differences between the content of the list and the given values and applies them on the JavaFX
+     * Application Thread. Waits until the list is updated.
+     *
+     * @param values the new content of the list
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     * @throws ExecutionException   if the list can't be updated
+     */
+    public synchronized void publish(final List<? extends T> values) throws InterruptedException, ExecutionException {
+        Assert.requireNonNull(values, "values");
+        List<T> previous = lastApplied;
+        if (previous == null) {
+            runOnDispatchThread(() -> {
+                list.addListener(modificationListener);
+                modified = false;
+                lastApplied = new ArrayList<>(list);
+            });
+            previous = lastApplied;
+        }
+        final ListDiff<T> diff = ListDiff.compute(previous, values, keyExtractor);
+        runOnDispatchThread(() -> {
+            // Until the update is complete the list doesn't contain the last applied content
+            boolean replaceAll = modified;
+            modified = true;
+            applying = true;
+            try {
+                if (replaceAll) {
+                    list.setAll(diff.getNewValues());
+                } else {
+                    diff.applyTo(list);
+                }
+            } finally {
+                applying = false;
+            }
+            modified = false;
+            lastApplied = diff.getNewValues();
+        });
+    }
+
+    private void runOnDispatchThread(final Runnable runnable) throws InterruptedException, ExecutionException {
+        if (DispatchThreadManager.getDispatchThread().isDispatchThread()) {
+            runnable.run();
+        } else {
+            ConcurrentUtils.runAndWait(runnable);
+        }
+    }
+}
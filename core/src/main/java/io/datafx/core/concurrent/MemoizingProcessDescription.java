@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import javafx.util.Duration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A {@link io.datafx.core.concurrent.ProcessDescription} that caches the results of its function. The result is
+ * cached for the input parameter of the process. Once a result is cached the function won't be called again for an
+ * equal input parameter until the entry expires or is evicted. The cache is bounded: if it contains more than the
+ * defined maximum number of entries the least recently used entry will be removed.
+ * Since the cache is part of the description it is shared by all executions of a chain and can be accessed by
+ * several executions at the same time. A {@link io.datafx.core.concurrent.ProcessChain} won't switch to the
+ * thread of the process if the result is already cached.
+ *
+ * @param <V> Input parameter type of the progress
+ * @param <T> Return parameter type of the progress
+ * @see io.datafx.core.concurrent.ProcessChain#addMemoizingFunction(Function, ThreadType, int, Duration)
+ */
+public class MemoizingProcessDescription<V, T> extends ProcessDescription<V, T> {
+
+    /**
+     * The default maximum number of cached results
+     */
+    public static final int DEFAULT_MAX_SIZE = 128;
+
+    private final Map<V, CacheEntry<T>> cache;
+
+    private final long timeToLive;
+
+    /**
+     * Creates a new description that caches up to {@link #DEFAULT_MAX_SIZE} results without any expiration.
+     *
+     * @param function   defines what this process will do
+     * @param threadType defines if the process should be executed om the JavaFX Platform Thread or on a background thread
+     */
+    public MemoizingProcessDescription(final Function<V, T> function, final ThreadType threadType) {
+        this(function, threadType, DEFAULT_MAX_SIZE, Duration.INDEFINITE);
+    }
+
+    /**
+     * Creates a new description
+     *
+     * @param function   defines what this process will do
+     * @param threadType defines if the process should be executed om the JavaFX Platform Thread or on a background thread
+     * @param maxSize    the maximum number of cached results
+     * @param timeToLive defines how long a cached result is valid. {@link javafx.util.Duration#INDEFINITE} can be used
+     *                   for results that never expire.
+     */
+    public MemoizingProcessDescription(final Function<V, T> function, final ThreadType threadType, final int maxSize, final Duration timeToLive) {
+        super(Assert.requireNonNull(function, "function"), threadType);
+        Assert.requireNonNull(timeToLive, "timeToLive");
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.timeToLive = timeToLive.isIndefinite() ? -1 : (long) (timeToLive.toMillis() * 1_000_000);
+        this.cache = new LinkedHashMap<V, CacheEntry<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<V, CacheEntry<T>> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public T apply(final V inputParameter, final CancellationToken token) {
+        CacheEntry<T> entry = getCachedEntry(inputParameter);
+        if (entry != null) {
+            return entry.value;
+        }
+        T result = super.apply(inputParameter, token);
+        synchronized (cache) {
+            cache.put(inputParameter, new CacheEntry<>(result, System.nanoTime() + timeToLive));
+        }
+        return result;
+    }
+
+    /**
+     * Removes all cached results
+     */
+    public void invalidate() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Removes the cached result for the given input parameter
+     *
+     * @param inputParameter the input parameter
+     */
+    public void invalidate(final V inputParameter) {
+        synchronized (cache) {
+            cache.remove(inputParameter);
+        }
+    }
+
+    /**
+     * Returns the cached entry for the given input or null if no valid entry is cached
+     */
+    CacheEntry<T> getCachedEntry(final V inputParameter) {
+        synchronized (cache) {
+            CacheEntry<T> entry = cache.get(inputParameter);
+            if (entry == null) {
+                return null;
+            }
+            if (timeToLive >= 0 && entry.expires - System.nanoTime() < 0) {
+                cache.remove(inputParameter);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    static final class CacheEntry<T> {
+
+        private final T value;
+
+        private final long expires;
+
+        private CacheEntry(final T value, final long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+
+        T getValue() {
+            return value;
+        }
+    }
+}
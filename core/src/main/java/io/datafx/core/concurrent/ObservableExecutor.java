@@ -31,17 +31,14 @@ import io.datafx.core.ExceptionHandler;
 import javafx.beans.property.ListProperty;
 import javafx.beans.property.ReadOnlyListProperty;
 import javafx.beans.property.SimpleListProperty;
-import javafx.beans.value.ChangeListener;
-import javafx.beans.value.ObservableValue;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.concurrent.Service;
 import javafx.concurrent.Task;
 import javafx.concurrent.Worker;
-import javafx.concurrent.Worker.State;
 
-import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 
 /**
@@ -101,33 +98,8 @@ public class ObservableExecutor implements Executor {
         currentServices.addListener((ListChangeListener<? super Service<?>>) change -> {
             while (change.next()) {
                 if (change.wasAdded()) {
-                    List<? extends Service<?>> newServices = change
-                            .getAddedSubList();
-                    for (final Service<?> service : newServices) {
-                        service.stateProperty().addListener(
-                                new ChangeListener<State>() {
-                                    @Override
-                                    public void changed(
-                                            ObservableValue<? extends State> observableValue,
-                                            State oldSate, State newState) {
-                                        if (newState != null
-                                                && (newState
-                                                .equals(State.CANCELLED)
-                                                || newState
-                                                .equals(State.SUCCEEDED) || newState
-                                                .equals(State.FAILED))) {
-                                            currentServices.remove(service);
-                                        }
-                                    }
-                                });
-                        State currentState = service.getState();
-                        if (currentState != null
-                                && (currentState.equals(State.CANCELLED)
-                                || currentState
-                                .equals(State.SUCCEEDED) || currentState
-                                .equals(State.FAILED))) {
-                            currentServices.remove(service);
-                        }
+                    for (final Service<?> service : change.getAddedSubList()) {
+                        ConcurrentUtils.onFinished(service, currentServices::remove);
                     }
                 }
             }
@@ -210,6 +182,17 @@ public class ObservableExecutor implements Executor {
         submit(runnable);
     }
 
+    /**
+     * Executes the given task on the JavaFX Application Thread once the thread is idle.
+     *
+     * @param task the task. Long running work can be split in slices.
+     * @return a future that will be completed once the task is done
+     * @see IdleScheduler
+     */
+    public CompletableFuture<Void> submitWhenIdle(final IdleTask task) {
+        return IdleScheduler.getInstance().submit(task);
+    }
+
     /**
      * Creates a new <tt>ProcessChain</tt> that uses this executor as the executor for all background tasks.
      * @return a new <tt>ProcessChain</tt>
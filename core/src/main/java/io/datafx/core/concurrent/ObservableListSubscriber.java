@@ -0,0 +1,186 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import io.datafx.core.ExceptionHandler;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A {@link java.util.concurrent.Flow.Subscriber} that adds all received values to an {@link javafx.collections.ObservableList}.
+ * The values are added on the JavaFX Application Thread. New values are only requested once the received values are
+ * added to the list. By doing so the subscriber only consumes values as fast as the JavaFX Application Thread can
+ * handle them and the publisher is slowed down if the UI lags. All values that are received between two updates of
+ * the list are added by one call of {@link javafx.collections.ObservableList#addAll(java.util.Collection)}.
+ *
+ * @param <T> type of the values
+ * @see io.datafx.core.concurrent.BackpressurePublisher
+ */
+public class ObservableListSubscriber<T> implements Flow.Subscriber<T> {
+
+    /**
+     * The default number of values that can be requested before the list was updated
+     */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final ObservableList<? super T> list;
+
+    private final int batchSize;
+
+    private final ExceptionHandler exceptionHandler;
+
+    private final Queue<T> pending;
+
+    private final AtomicBoolean updateScheduled;
+
+    private volatile Flow.Subscription subscription;
+
+    private volatile boolean completed;
+
+    private volatile Throwable error;
+
+    private Runnable onComplete;
+
+    private boolean finished;
+
+    public ObservableListSubscriber(final ObservableList<? super T> list) {
+        this(list, DEFAULT_BATCH_SIZE);
+    }
+
+    public ObservableListSubscriber(final ObservableList<? super T> list, final int batchSize) {
+        this(list, batchSize, ExceptionHandler.getDefaultInstance());
+    }
+
+    /**
+     * Creates a new subscriber
+     *
+     * @param list             the list that will be filled with all received values
+     * @param batchSize        maximum number of values that are requested before the list was updated
+     * @param exceptionHandler the exception handler that will be informed if the publisher fails
+     */
+    public ObservableListSubscriber(final ObservableList<? super T> list, final int batchSize, final ExceptionHandler exceptionHandler) {
+        this.list = Assert.requireNonNull(list, "list");
+        this.exceptionHandler = Assert.requireNonNull(exceptionHandler, "exceptionHandler");
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        this.batchSize = batchSize;
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.updateScheduled = new AtomicBoolean(false);
+    }
+
+    /**
+     * Defines a runnable that will be called on the JavaFX Application Thread once all values of the publisher
+     * were added to the list.
+     *
+     * @param onComplete the runnable
+     * @return this subscriber
+     */
+    public ObservableListSubscriber<T> onComplete(final Runnable onComplete) {
+        this.onComplete = onComplete;
+        return this;
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        this.subscription = Assert.requireNonNull(subscription, "subscription");
+        subscription.request(batchSize);
+    }
+
+    @Override
+    public void onNext(final T item) {
+        pending.add(item);
+        scheduleUpdate();
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        error = throwable;
+        completed = true;
+        scheduleUpdate();
+    }
+
+    @Override
+    public void onComplete() {
+        completed = true;
+        scheduleUpdate();
+    }
+
+    /**
+     * Cancels the subscription. Values that were already received will still be added to the list.
+     */
+    public void cancel() {
+        Flow.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    private void scheduleUpdate() {
+        if (updateScheduled.compareAndSet(false, true)) {
+            DispatchThreadManager.getDispatchThread().execute(this::update);
+        }
+    }
+
+    private void update() {
+        updateScheduled.set(false);
+        boolean done = completed;
+        List<T> chunk = new ArrayList<>(batchSize);
+        T item;
+        while ((item = pending.poll()) != null) {
+            chunk.add(item);
+        }
+        if (!chunk.isEmpty()) {
+            PlatformProfiler.Measurement measurement = PlatformProfiler.getInstance().start("ObservableListSubscriber publish");
+            try {
+                list.addAll(chunk);
+            } finally {
+                measurement.close();
+            }
+        }
+        if (done) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            if (error != null) {
+                exceptionHandler.setException(error);
+            } else if (onComplete != null) {
+                onComplete.run();
+            }
+        } else if (!chunk.isEmpty()) {
+            subscription.request(chunk.size());
+        }
+    }
+}
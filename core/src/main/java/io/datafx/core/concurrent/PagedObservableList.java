@@ -0,0 +1,345 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import io.datafx.core.ExceptionHandler;
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * A read only {@link javafx.collections.ObservableList} for data sets that are too big to be loaded completely. The
+ * size of the list is known up front. The elements are loaded in pages by a {@link io.datafx.core.concurrent.PageLoader}
+ * that is called in the background when an element of a page is requested for the first time. Until the page is
+ * loaded a placeholder is returned for each of its elements. Once the page is loaded all its placeholders are
+ * replaced by one change. The pages next to a requested page are loaded in advance, so a virtualized control like a
+ * {@link javafx.scene.control.ListView} or a {@link javafx.scene.control.TableView} normally shows loaded elements
+ * while the user scrolls. Only a limited number of pages is held in memory. If the limit is reached the page that
+ * wasn't requested for the longest time is removed, its elements are replaced by placeholders and it will be loaded
+ * again when it is requested the next time. If a page can't be loaded it isn't requested again until a delay has
+ * passed. The delay starts at one second and is doubled for each failed attempt up to one minute.
+ *
+ * The list must only be used on the JavaFX Application Thread.
+ *
+ * Usage:
+ * <tt>
+ * PagedObservableList&lt;Row&gt; rows = new PagedObservableList&lt;&gt;(database.count(), (from, count) -&gt; database.load(from, count));
+ * tableView.setItems(rows);
+ * </tt>
+ *
+ * @param <T> type of the elements
+ */
+public class PagedObservableList<T> extends ObservableListBase<T> {
+
+    /**
+     * The default number of elements in a page
+     */
+    public static final int DEFAULT_PAGE_SIZE = 256;
+
+    /**
+     * The default number of pages that are held in memory
+     */
+    public static final int DEFAULT_MAX_CACHED_PAGES = 64;
+
+    /**
+     * The default number of pages that are loaded in advance before and after a requested page
+     */
+    public static final int DEFAULT_PREFETCH_PAGES = 1;
+
+    private static final long MIN_RETRY_DELAY = TimeUnit.SECONDS.toNanos(1);
+
+    private static final long MAX_RETRY_DELAY = TimeUnit.MINUTES.toNanos(1);
+
+    private final int size;
+
+    private final int pageSize;
+
+    private final int maxCachedPages;
+
+    private final int prefetchPages;
+
+    private final PageLoader<T> loader;
+
+    private final IntFunction<T> placeholderFactory;
+
+    private final Executor executor;
+
+    private final ExceptionHandler exceptionHandler;
+
+    private final Map<Integer, List<T>> pages;
+
+    private final Set<Integer> loadingPages;
+
+    private final Map<Integer, Failure> failedPages;
+
+    private long generation;
+
+    private boolean firingChange;
+
+    /**
+     * Creates a new list that uses null as placeholder
+     *
+     * @param size   the size of the list
+     * @param loader the loader for the pages
+     */
+    public PagedObservableList(final int size, final PageLoader<T> loader) {
+        this(size, loader, index -> null);
+    }
+
+    /**
+     * Creates a new list
+     *
+     * @param size               the size of the list
+     * @param loader             the loader for the pages
+     * @param placeholderFactory creates the placeholder for the element at the given index
+     */
+    public PagedObservableList(final int size, final PageLoader<T> loader, final IntFunction<T> placeholderFactory) {
+        this(size, loader, placeholderFactory, DEFAULT_PAGE_SIZE, DEFAULT_MAX_CACHED_PAGES, DEFAULT_PREFETCH_PAGES,
+                ObservableExecutor.getDefaultInstance(), ExceptionHandler.getDefaultInstance());
+    }
+
+    /**
+     * Creates a new list
+     *
+     * @param size               the size of the list
+     * @param loader             the loader for the pages
+     * @param placeholderFactory creates the placeholder for the element at the given index
+     * @param pageSize           number of elements in a page
+     * @param maxCachedPages     number of pages that are held in memory
+     * @param prefetchPages      number of pages that are loaded in advance before and after a requested page
+     * @param executor           executor that calls the loader
+     * @param exceptionHandler   handler for exceptions that are thrown by the loader
+     */
+    public PagedObservableList(final int size, final PageLoader<T> loader, final IntFunction<T> placeholderFactory, final int pageSize,
+                               final int maxCachedPages, final int prefetchPages, final Executor executor, final ExceptionHandler exceptionHandler) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must be >= 0");
+        }
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be > 0");
+        }
+        if (maxCachedPages < 1 + 2 * prefetchPages) {
+            throw new IllegalArgumentException("maxCachedPages must be >= 1 + 2 * prefetchPages");
+        }
+        if (prefetchPages < 0) {
+            throw new IllegalArgumentException("prefetchPages must be >= 0");
+        }
+        this.size = size;
+        this.loader = Assert.requireNonNull(loader, "loader");
+        this.placeholderFactory = Assert.requireNonNull(placeholderFactory, "placeholderFactory");
+        this.pageSize = pageSize;
+        this.maxCachedPages = maxCachedPages;
+        this.prefetchPages = prefetchPages;
+        this.executor = Assert.requireNonNull(executor, "executor");
+        this.exceptionHandler = Assert.requireNonNull(exceptionHandler, "exceptionHandler");
+        this.pages = new LinkedHashMap<>(16, 0.75f, true);
+        this.loadingPages = new HashSet<>();
+        this.failedPages = new HashMap<>();
+    }
+
+    /**
+     * Returns the element at the given index or a placeholder if the page of the element isn't loaded yet. If the
+     * page isn't loaded it will be loaded in the background. While this list fires a change no page is requested, so
+     * a listener that reads the changed elements doesn't load the pages next to them.
+     *
+     * @param index the index
+     * @return the element or a placeholder
+     */
+    @Override
+    public T get(final int index) {
+        Objects.checkIndex(index, size);
+        int page = index / pageSize;
+        List<T> elements = pages.get(page);
+        if (!firingChange) {
+            for (int p = Math.max(0, page - prefetchPages); p <= Math.min(getPageCount() - 1, page + prefetchPages); p++) {
+                if (p != page || elements == null) {
+                    requestPage(p);
+                }
+            }
+        }
+        int indexInPage = index - page * pageSize;
+        if (elements == null || indexInPage >= elements.size()) {
+            return placeholderFactory.apply(index);
+        }
+        return elements.get(indexInPage);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns true if the element at the given index is loaded
+     *
+     * @param index the index
+     * @return true if the element is loaded
+     */
+    public boolean isLoaded(final int index) {
+        Objects.checkIndex(index, size);
+        return pages.containsKey(index / pageSize);
+    }
+
+    /**
+     * Removes all loaded pages and forgets all failed attempts. All elements that are requested afterwards will be
+     * loaded again. The elements that were loaded are replaced by placeholders in one change.
+     */
+    public void refresh() {
+        generation++;
+        List<Integer> loaded = new ArrayList<>(pages.keySet());
+        Collections.sort(loaded);
+        List<List<T>> removed = new ArrayList<>(loaded.size());
+        for (int page : loaded) {
+            removed.add(getVisibleElements(page));
+        }
+        pages.clear();
+        loadingPages.clear();
+        failedPages.clear();
+        if (!loaded.isEmpty()) {
+            firingChange = true;
+            try {
+                beginChange();
+                for (int i = 0; i < loaded.size(); i++) {
+                    int fromIndex = loaded.get(i) * pageSize;
+                    nextReplace(fromIndex, fromIndex + removed.get(i).size(), removed.get(i));
+                }
+                endChange();
+            } finally {
+                firingChange = false;
+            }
+        }
+    }
+
+    private int getPageCount() {
+        return (size + pageSize - 1) / pageSize;
+    }
+
+    /**
+     * Returns the elements of the page as they are currently returned by {@link #get(int)}, without requesting any
+     * page
+     */
+    private List<T> getVisibleElements(final int page) {
+        List<T> elements = pages.get(page);
+        int fromIndex = page * pageSize;
+        int toIndex = Math.min(size, fromIndex + pageSize);
+        List<T> visible = new ArrayList<>(toIndex - fromIndex);
+        for (int i = fromIndex; i < toIndex; i++) {
+            int indexInPage = i - fromIndex;
+            visible.add(elements == null || indexInPage >= elements.size() ? placeholderFactory.apply(i) : elements.get(indexInPage));
+        }
+        return visible;
+    }
+
+    private void requestPage(final int page) {
+        if (pages.containsKey(page)) {
+            return;
+        }
+        Failure failure = failedPages.get(page);
+        if (failure != null && System.nanoTime() - failure.retryTime < 0) {
+            return;
+        }
+        if (!loadingPages.add(page)) {
+            return;
+        }
+        final long requestGeneration = generation;
+        final int fromIndex = page * pageSize;
+        final int count = Math.min(pageSize, size - fromIndex);
+        executor.execute(() -> {
+            try {
+                List<T> elements = new ArrayList<>(loader.loadPage(fromIndex, count));
+                DispatchThreadManager.getDispatchThread().execute(() -> pageLoaded(requestGeneration, page, elements));
+            } catch (Exception e) {
+                DispatchThreadManager.getDispatchThread().execute(() -> {
+                    if (requestGeneration == generation) {
+                        loadingPages.remove(page);
+                        Failure previous = failedPages.get(page);
+                        failedPages.put(page, new Failure(previous == null ? 0 : previous.attempts));
+                    }
+                    exceptionHandler.setException(e);
+                });
+            }
+        });
+    }
+
+    private void pageLoaded(final long requestGeneration, final int page, final List<T> elements) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        loadingPages.remove(page);
+        failedPages.remove(page);
+        PlatformProfiler.Measurement measurement = PlatformProfiler.getInstance().start("PagedObservableList page loaded");
+        try {
+            Map<Integer, List<T>> replaced = new TreeMap<>();
+            replaced.put(page, getVisibleElements(page));
+            pages.put(page, elements);
+            while (pages.size() > maxCachedPages) {
+                Integer eldest = pages.keySet().iterator().next();
+                replaced.put(eldest, getVisibleElements(eldest));
+                pages.remove(eldest);
+            }
+            firingChange = true;
+            beginChange();
+            for (Map.Entry<Integer, List<T>> entry : replaced.entrySet()) {
+                int fromIndex = entry.getKey() * pageSize;
+                nextReplace(fromIndex, fromIndex + entry.getValue().size(), entry.getValue());
+            }
+            endChange();
+        } finally {
+            firingChange = false;
+            measurement.close();
+        }
+    }
+
+    /**
+     * A failed attempt to load a page
+     */
+    private static final class Failure {
+
+        private final int attempts;
+
+        private final long retryTime;
+
+        Failure(final int previousAttempts) {
+            this.attempts = previousAttempts + 1;
+            long delay = MIN_RETRY_DELAY << Math.min(previousAttempts, 16);
+            this.retryTime = System.nanoTime() + Math.min(delay, MAX_RETRY_DELAY);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@link io.datafx.core.concurrent.ChunkedObservableList} that supports snapshots in O(1). A snapshot is an
+ * immutable list that won't change if this list is modified later. The snapshot and the list share all parts of
+ * their internal structure that weren't modified after the snapshot was created, only the modified parts are copied.
+ * By doing so a background task can work with a consistent view of a list that is bound to a control, while the list
+ * is still modified on the JavaFX Application Thread.
+ *
+ * Usage:
+ * <tt>
+ * List&lt;Person&gt; snapshot = persons.snapshot();
+ * executor.execute(() -&gt; export(snapshot));
+ * </tt>
+ *
+ * @param <T> type of the elements
+ */
+public class PersistentObservableList<T> extends ChunkedObservableList<T> {
+
+    public PersistentObservableList() {
+    }
+
+    /**
+     * Creates a new list that contains the given elements
+     *
+     * @param elements the elements
+     */
+    public PersistentObservableList(final Collection<? extends T> elements) {
+        super(elements);
+    }
+
+    /**
+     * Returns an immutable snapshot of the current content of this list. Must be called on the thread that modifies
+     * the list. The snapshot can be read by any thread once it is published safely, for example by passing it to an
+     * {@link java.util.concurrent.Executor}.
+     *
+     * @return the snapshot
+     */
+    public List<T> snapshot() {
+        return createSnapshot();
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Supplier;
+
+/**
+ * Holds a short description of the DataFX call site that is currently executed on the JavaFX Application Thread,
+ * for example the id of a flow action or the stage of a process chain. The information is used by the
+ * {@link io.datafx.core.concurrent.PlatformWatchdog} to describe what blocked the JavaFX Application Thread.
+ * Each dispatch thread has its own stack of call sites, so nested call sites restore the outer call site once they
+ * are closed. Calls from any other thread than a dispatch thread are ignored.
+ *
+ * Usage:
+ * <tt>
+ * PlatformCallSite.Scope scope = PlatformCallSite.enter(() -&gt; "action " + actionId);
+ * try {
+ *     ...
+ * } finally {
+ *     scope.close();
+ * }
+ * </tt>
+ */
+public final class PlatformCallSite {
+
+    private static final Scope NO_SCOPE = new Scope(null, null, null);
+
+    private static final Map<Thread, Deque<Scope>> CALL_SITES = new ConcurrentHashMap<>();
+
+    private PlatformCallSite() {
+    }
+
+    /**
+     * Defines the call site that is executed on the current dispatch thread until the returned scope is closed
+     *
+     * @param callSite description of the call site
+     * @return the scope of the call site
+     */
+    public static Scope enter(final String callSite) {
+        Assert.requireNonNull(callSite, "callSite");
+        if (!DispatchThreadManager.getDispatchThread().isDispatchThread()) {
+            return NO_SCOPE;
+        }
+        return push(new Scope(Thread.currentThread(), callSite, null));
+    }
+
+    /**
+     * Defines the call site that is executed on the current dispatch thread until the returned scope is closed. The
+     * description is only created if it is needed: if a {@link io.datafx.core.concurrent.PlatformWatchdog} is running
+     * or the {@link io.datafx.core.concurrent.PlatformProfiler} is enabled it is created directly, otherwise only if
+     * the call site is requested on the dispatch thread itself. The supplier is never called by another thread.
+     *
+     * @param callSite supplier of the description
+     * @return the scope of the call site
+     */
+    public static Scope enter(final Supplier<String> callSite) {
+        Assert.requireNonNull(callSite, "callSite");
+        if (!DispatchThreadManager.getDispatchThread().isDispatchThread()) {
+            return NO_SCOPE;
+        }
+        if (PlatformWatchdog.isAnyRunning() || PlatformProfiler.getInstance().isEnabled()) {
+            return push(new Scope(Thread.currentThread(), callSite.get(), null));
+        }
+        return push(new Scope(Thread.currentThread(), null, callSite));
+    }
+
+    private static Scope push(final Scope scope) {
+        CALL_SITES.computeIfAbsent(scope.thread, t -> new ConcurrentLinkedDeque<>()).addLast(scope);
+        return scope;
+    }
+
+    /**
+     * Returns the call site that is currently executed on the current thread or null
+     *
+     * @return the call site or null
+     */
+    public static String getCurrent() {
+        return getCurrent(Thread.currentThread());
+    }
+
+    /**
+     * Returns the call site that is currently executed on the given thread or null. If the description of the call
+     * site wasn't created when the call site was entered it is only available on the given thread itself.
+     *
+     * @param thread the thread
+     * @return the call site or null
+     */
+    public static String getCurrent(final Thread thread) {
+        Deque<Scope> scopes = CALL_SITES.get(thread);
+        Scope scope = scopes == null ? null : scopes.peekLast();
+        if (scope == null) {
+            return null;
+        }
+        if (scope.callSite == null && scope.callSiteSupplier != null && thread == Thread.currentThread()) {
+            return scope.callSiteSupplier.get();
+        }
+        return scope.callSite;
+    }
+
+    /**
+     * The scope of a call site. Once the scope is closed the call site that was executed before becomes current again.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Thread thread;
+
+        private final String callSite;
+
+        private final Supplier<String> callSiteSupplier;
+
+        private Scope(final Thread thread, final String callSite, final Supplier<String> callSiteSupplier) {
+            this.thread = thread;
+            this.callSite = callSite;
+            this.callSiteSupplier = callSiteSupplier;
+        }
+
+        @Override
+        public void close() {
+            if (thread == null) {
+                return;
+            }
+            Deque<Scope> scopes = CALL_SITES.get(thread);
+            if (scopes != null) {
+                scopes.removeLastOccurrence(this);
+                if (scopes.isEmpty()) {
+                    CALL_SITES.remove(thread, scopes);
+                }
+            }
+        }
+    }
+}
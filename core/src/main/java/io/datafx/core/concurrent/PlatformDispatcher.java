@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import io.datafx.core.DataFXConfiguration;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.util.Duration;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Central dispatcher for all work that DataFX executes on the JavaFX Application Thread. Instead of calling
+ * {@link javafx.application.Platform#runLater(Runnable)} for each event all runnables are added to a lock free queue.
+ * The JavaFX Application Thread drains the queue in one go. Draining is limited by a time budget: if the queue
+ * can't be drained in the budget the remaining runnables will be executed in the next pulse. By doing so the event
+ * queue of JavaFX isn't flooded by thousands of small runnables and input events can still be handled while DataFX
+ * publishes a lot of data.
+ * All runnables are executed in the order they were added to the dispatcher.
+ * The dispatcher is the default {@link io.datafx.core.concurrent.DispatchThread} of DataFX.
+ *
+ * @see io.datafx.core.concurrent.DispatchThreadManager
+ */
+public final class PlatformDispatcher implements DispatchThread {
+
+    private static PlatformDispatcher instance;
+
+    private final Queue<Runnable> queue;
+
+    private final AtomicBoolean scheduled;
+
+    private volatile long frameBudget;
+
+    private AnimationTimer pulseTimer;
+
+    private boolean pulseTimerRunning;
+
+    private PlatformDispatcher() {
+        this.queue = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean(false);
+        this.frameBudget = DataFXConfiguration.getInstance().getPlatformDispatcherBudget() * 1_000_000L;
+    }
+
+    /**
+     * Returns the dispatcher
+     *
+     * @return the dispatcher
+     */
+    public static synchronized PlatformDispatcher getInstance() {
+        if (instance == null) {
+            instance = new PlatformDispatcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Adds the given runnable to the queue of the dispatcher. The runnable will be executed on the JavaFX Application
+     * Thread. This method can be called from any thread and never blocks.
+     *
+     * @param runnable the runnable
+     */
+    @Override
+    public void execute(final Runnable runnable) {
+        queue.add(Assert.requireNonNull(runnable, "runnable"));
+        if (scheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::drain);
+        }
+    }
+
+    @Override
+    public boolean isDispatchThread() {
+        return Platform.isFxApplicationThread();
+    }
+
+    /**
+     * Returns the {@link io.datafx.core.concurrent.IdleScheduler}
+     *
+     * @return the idle scheduler
+     */
+    @Override
+    public Executor getIdleExecutor() {
+        return IdleScheduler.getInstance();
+    }
+
+    /**
+     * Defines how long the JavaFX Application Thread can execute queued runnables in one pulse
+     *
+     * @param budget the time budget
+     */
+    public void setFrameBudget(final Duration budget) {
+        Assert.requireNonNull(budget, "budget");
+        this.frameBudget = (long) (budget.toMillis() * 1_000_000);
+    }
+
+    /**
+     * Returns how long the JavaFX Application Thread can execute queued runnables in one pulse
+     *
+     * @return the time budget
+     */
+    public Duration getFrameBudget() {
+        return Duration.millis(frameBudget / 1_000_000.0);
+    }
+
+    /**
+     * Returns the number of runnables that are waiting for the JavaFX Application Thread
+     *
+     * @return the number of queued runnables
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Returns true if runnables are waiting for the JavaFX Application Thread
+     *
+     * @return true if runnables are waiting for the JavaFX Application Thread
+     */
+    public boolean hasQueuedRunnables() {
+        return !queue.isEmpty();
+    }
+
+    private void drain() {
+        final long deadline = System.nanoTime() + frameBudget;
+        Runnable runnable;
+        do {
+            runnable = queue.poll();
+            if (runnable != null) {
+                run(runnable);
+            }
+        } while (runnable != null && System.nanoTime() - deadline < 0);
+
+        if (!queue.isEmpty()) {
+            startPulseTimer();
+            return;
+        }
+        stopPulseTimer();
+        scheduled.set(false);
+        if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+            startPulseTimer();
+        }
+    }
+
+    private void run(final Runnable runnable) {
+        try {
+            runnable.run();
+        } catch (Throwable e) {
+            Thread thread = Thread.currentThread();
+            thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+        }
+    }
+
+    private void startPulseTimer() {
+        if (pulseTimer == null) {
+            pulseTimer = new AnimationTimer() {
+                @Override
+                public void handle(final long now) {
+                    drain();
+                }
+            };
+        }
+        if (!pulseTimerRunning) {
+            pulseTimerRunning = true;
+            pulseTimer.start();
+        }
+    }
+
+    private void stopPulseTimer() {
+        if (pulseTimerRunning) {
+            pulseTimerRunning = false;
+            pulseTimer.stop();
+        }
+    }
+}
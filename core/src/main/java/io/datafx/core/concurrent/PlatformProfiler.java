@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Profiler that measures the time DataFX spends on the JavaFX Application Thread. The time is aggregated for each
+ * call site, for example a flow action, a process chain stage or the publishing of values to a list.
+ * The profiler is disabled by default. While it is disabled no measurement is created and the names of call sites
+ * that are passed as suppliers aren't created.
+ *
+ * Usage:
+ * <tt>
+ * PlatformProfiler.Measurement measurement = PlatformProfiler.getInstance().start(() -&gt; "show " + name);
+ * try {
+ *     ...
+ * } finally {
+ *     measurement.close();
+ * }
+ * </tt>
+ */
+public final class PlatformProfiler {
+
+    private static PlatformProfiler instance;
+
+    private final Map<String, CallSiteStatistics> statistics;
+
+    private final Measurement inactiveMeasurement;
+
+    private volatile boolean enabled;
+
+    private PlatformProfiler() {
+        this.statistics = new ConcurrentHashMap<>();
+        this.inactiveMeasurement = new Measurement(null);
+    }
+
+    /**
+     * Returns the profiler
+     *
+     * @return the profiler
+     */
+    public static synchronized PlatformProfiler getInstance() {
+        if (instance == null) {
+            instance = new PlatformProfiler();
+        }
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Starts a measurement for the given call site. If the profiler is disabled or the method isn't called on the
+     * JavaFX Application Thread a shared measurement that records nothing is returned. The measurement must be closed.
+     *
+     * @param callSite the call site
+     * @return the measurement
+     */
+    public Measurement start(final String callSite) {
+        if (!enabled || !DispatchThreadManager.getDispatchThread().isDispatchThread()) {
+            return inactiveMeasurement;
+        }
+        return new Measurement(callSite);
+    }
+
+    /**
+     * Starts a measurement for the call site that is provided by the given supplier. The supplier is only called if
+     * the profiler is enabled.
+     *
+     * @param callSite supplier of the call site
+     * @return the measurement
+     * @see #start(String)
+     */
+    public Measurement start(final Supplier<String> callSite) {
+        Assert.requireNonNull(callSite, "callSite");
+        if (!enabled || !DispatchThreadManager.getDispatchThread().isDispatchThread()) {
+            return inactiveMeasurement;
+        }
+        return new Measurement(callSite.get());
+    }
+
+    /**
+     * Wraps the given runnable. If the profiler is enabled the time that is spend in the runnable will be recorded
+     * for the given call site. If the profiler is disabled the runnable is returned.
+     *
+     * @param callSite the call site
+     * @param runnable the runnable
+     * @return the wrapped runnable
+     */
+    public Runnable wrap(final String callSite, final Runnable runnable) {
+        Assert.requireNonNull(runnable, "runnable");
+        if (!enabled) {
+            return runnable;
+        }
+        return () -> {
+            Measurement measurement = start(callSite);
+            try {
+                runnable.run();
+            } finally {
+                measurement.close();
+            }
+        };
+    }
+
+    /**
+     * Wraps the given callable. If the profiler is enabled the time that is spend in the callable will be recorded
+     * for the given call site. If the profiler is disabled the callable is returned.
+     *
+     * @param callSite the call site
+     * @param callable the callable
+     * @param <T>      return type of the callable
+     * @return the wrapped callable
+     */
+    public <T> Callable<T> wrapCallable(final String callSite, final Callable<T> callable) {
+        Assert.requireNonNull(callable, "callable");
+        if (!enabled) {
+            return callable;
+        }
+        return () -> {
+            Measurement measurement = start(callSite);
+            try {
+                return callable.call();
+            } finally {
+                measurement.close();
+            }
+        };
+    }
+
+    /**
+     * Adds a measurement for the given call site
+     *
+     * @param callSite the call site
+     * @param nanos    the measured time in nanoseconds
+     */
+    public void record(final String callSite, final long nanos) {
+        statistics.computeIfAbsent(callSite == null ? "unknown" : callSite, CallSiteStatistics::new).record(nanos);
+    }
+
+    /**
+     * Returns the call sites that used the JavaFX Application Thread the most
+     *
+     * @param n maximum number of returned call sites
+     * @return the call sites ordered by the time they spend on the JavaFX Application Thread
+     */
+    public List<CallSiteStatistics> getTopCallSites(final int n) {
+        return statistics.values().stream()
+                .sorted(Comparator.comparingLong(CallSiteStatistics::getTotalNanos).reversed())
+                .limit(n)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Prints the call sites that used the JavaFX Application Thread the most
+     *
+     * @param n      maximum number of printed call sites
+     * @param stream the stream
+     */
+    public void dump(final int n, final PrintStream stream) {
+        Assert.requireNonNull(stream, "stream");
+        stream.println("DataFX JavaFX Application Thread profile (top " + n + ")");
+        getTopCallSites(n).forEach(stream::println);
+    }
+
+    /**
+     * Removes all measurements
+     */
+    public void reset() {
+        statistics.clear();
+    }
+
+    /**
+     * A running measurement. The time is recorded once the measurement is closed. A measurement that was created
+     * while the profiler was disabled records nothing.
+     */
+    public final class Measurement implements AutoCloseable {
+
+        private final String callSite;
+
+        private final long start;
+
+        private Measurement(final String callSite) {
+            this.callSite = callSite;
+            this.start = System.nanoTime();
+        }
+
+        @Override
+        public void close() {
+            if (this != inactiveMeasurement) {
+                record(callSite, System.nanoTime() - start);
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+/**
+ * Describes a stall of the JavaFX Application Thread that was detected by the
+ * {@link io.datafx.core.concurrent.PlatformWatchdog}.
+ */
+public final class PlatformStallEvent {
+
+    private final Instant time;
+
+    private final long durationMillis;
+
+    private final String callSite;
+
+    private final StackTraceElement[] stackTrace;
+
+    PlatformStallEvent(final Instant time, final long durationMillis, final String callSite, final StackTraceElement[] stackTrace) {
+        this.time = time;
+        this.durationMillis = durationMillis;
+        this.callSite = callSite;
+        this.stackTrace = stackTrace;
+    }
+
+    /**
+     * Returns the time when the stall was detected
+     *
+     * @return the time
+     */
+    public Instant getTime() {
+        return time;
+    }
+
+    /**
+     * Returns how long the JavaFX Application Thread was blocked when the stall was detected
+     *
+     * @return the duration in milliseconds
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    /**
+     * Returns the DataFX call site that was executed or null if the call site isn't known
+     *
+     * @return the call site
+     * @see io.datafx.core.concurrent.PlatformCallSite
+     */
+    public String getCallSite() {
+        return callSite;
+    }
+
+    /**
+     * Returns the stack trace of the JavaFX Application Thread when the stall was detected
+     *
+     * @return the stack trace
+     */
+    public StackTraceElement[] getStackTrace() {
+        return stackTrace.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("JavaFX Application Thread blocked for ").append(durationMillis).append(" ms at ").append(time);
+        if (callSite != null) {
+            builder.append(" in ").append(callSite);
+        }
+        Arrays.stream(stackTrace).forEach(e -> builder.append(System.lineSeparator()).append("\tat ").append(e));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,264 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.util.Duration;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A watchdog that detects stalls of the JavaFX Application Thread. A daemon thread sends a heartbeat to the JavaFX
+ * Application Thread in a fixed interval. If a heartbeat isn't handled in the defined threshold the stack trace of
+ * the JavaFX Application Thread will be captured together with the current {@link PlatformCallSite}. Each stall is
+ * reported once: it is logged, stored in a bounded history, passed to all stall listeners and added to the
+ * observable list of stall events once the JavaFX Application Thread is responsive again.
+ * Since only one heartbeat is send per interval the watchdog doesn't create a measurable load.
+ *
+ * @see io.datafx.core.concurrent.PlatformStallEvent
+ */
+public class PlatformWatchdog {
+
+    private static final Logger LOGGER = Logger.getLogger(PlatformWatchdog.class.getName());
+
+    private static final String PLATFORM_THREAD_NAME = "JavaFX Application Thread";
+
+    private static final AtomicInteger RUNNING_WATCHDOGS = new AtomicInteger();
+
+    private static PlatformWatchdog defaultInstance;
+
+    private final long threshold;
+
+    private final long interval;
+
+    private final int historySize;
+
+    private final Deque<PlatformStallEvent> history;
+
+    private final List<Consumer<PlatformStallEvent>> stallListeners;
+
+    private final ObservableList<PlatformStallEvent> stallEvents;
+
+    private volatile Thread platformThread;
+
+    private volatile long heartbeatSent;
+
+    private volatile boolean heartbeatPending;
+
+    private Thread watchdogThread;
+
+    public PlatformWatchdog() {
+        this(Duration.millis(500), Duration.millis(100), 64);
+    }
+
+    /**
+     * Creates a new watchdog
+     *
+     * @param threshold   the JavaFX Application Thread is treated as blocked if a heartbeat isn't handled in this time
+     * @param interval    the interval between two heartbeats
+     * @param historySize the number of stall events that are stored
+     */
+    public PlatformWatchdog(final Duration threshold, final Duration interval, final int historySize) {
+        Assert.requireNonNull(threshold, "threshold");
+        Assert.requireNonNull(interval, "interval");
+        if (historySize <= 0) {
+            throw new IllegalArgumentException("historySize must be positive");
+        }
+        this.threshold = (long) (threshold.toMillis() * 1_000_000);
+        this.interval = Math.max(1, (long) interval.toMillis());
+        this.historySize = historySize;
+        this.history = new ArrayDeque<>(historySize);
+        this.stallListeners = new CopyOnWriteArrayList<>();
+        this.stallEvents = FXCollections.observableArrayList();
+    }
+
+    /**
+     * Returns the default watchdog. The watchdog isn't started automatically.
+     *
+     * @return the default watchdog
+     */
+    public static synchronized PlatformWatchdog getDefaultInstance() {
+        if (defaultInstance == null) {
+            defaultInstance = new PlatformWatchdog();
+        }
+        return defaultInstance;
+    }
+
+    /**
+     * Starts the watchdog. Calling this method for a running watchdog has no effect.
+     */
+    public synchronized void start() {
+        if (watchdogThread != null) {
+            return;
+        }
+        heartbeatPending = false;
+        if (Platform.isFxApplicationThread()) {
+            platformThread = Thread.currentThread();
+        }
+        watchdogThread = new Thread(this::watch, "DataFX platform watchdog");
+        watchdogThread.setDaemon(true);
+        RUNNING_WATCHDOGS.incrementAndGet();
+        watchdogThread.start();
+    }
+
+    /**
+     * Stops the watchdog
+     */
+    public synchronized void stop() {
+        if (watchdogThread != null) {
+            watchdogThread.interrupt();
+            watchdogThread = null;
+            RUNNING_WATCHDOGS.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns true if any watchdog is running
+     *
+     * @return true if any watchdog is running
+     */
+    static boolean isAnyRunning() {
+        return RUNNING_WATCHDOGS.get() > 0;
+    }
+
+    /**
+     * Adds a listener that will be informed about each stall. The listener is called in the thread of the
+     * watchdog while the JavaFX Application Thread is still blocked.
+     *
+     * @param listener the listener
+     */
+    public void addStallListener(final Consumer<PlatformStallEvent> listener) {
+        stallListeners.add(Assert.requireNonNull(listener, "listener"));
+    }
+
+    public void removeStallListener(final Consumer<PlatformStallEvent> listener) {
+        stallListeners.remove(listener);
+    }
+
+    /**
+     * Returns an observable list that contains the last stall events. The list is updated on the JavaFX Application
+     * Thread and holds at most the defined history size.
+     *
+     * @return the stall events
+     */
+    public ObservableList<PlatformStallEvent> getStallEvents() {
+        return FXCollections.unmodifiableObservableList(stallEvents);
+    }
+
+    /**
+     * Returns the last stall events
+     *
+     * @return a copy of the stored stall events
+     */
+    public List<PlatformStallEvent> getHistory() {
+        synchronized (history) {
+            return new ArrayList<>(history);
+        }
+    }
+
+    private void watch() {
+        boolean reported = false;
+        if (platformThread == null) {
+            platformThread = findPlatformThread();
+        }
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                if (!heartbeatPending) {
+                    reported = false;
+                    heartbeatPending = true;
+                    heartbeatSent = System.nanoTime();
+                    // the heartbeat bypasses the PlatformDispatcher to measure the event queue of JavaFX itself
+                    Platform.runLater(this::onHeartbeat);
+                } else if (!reported) {
+                    long blocked = System.nanoTime() - heartbeatSent;
+                    if (blocked > threshold && platformThread == null) {
+                        platformThread = findPlatformThread();
+                    }
+                    Thread thread = platformThread;
+                    if (blocked > threshold && thread != null) {
+                        reported = true;
+                        report(new PlatformStallEvent(Instant.now(), blocked / 1_000_000, PlatformCallSite.getCurrent(thread), thread.getStackTrace()));
+                    }
+                }
+                Thread.sleep(interval);
+            }
+        } catch (InterruptedException e) {
+            // watchdog was stopped
+        }
+    }
+
+    /**
+     * Searches the JavaFX Application Thread without posting to it, so the thread is found even if it is already
+     * blocked when the watchdog starts.
+     */
+    private static Thread findPlatformThread() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> PLATFORM_THREAD_NAME.equals(t.getName()))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private void onHeartbeat() {
+        platformThread = Thread.currentThread();
+        heartbeatPending = false;
+    }
+
+    private void report(final PlatformStallEvent event) {
+        LOGGER.log(Level.WARNING, event.toString());
+        synchronized (history) {
+            if (history.size() >= historySize) {
+                history.removeFirst();
+            }
+            history.addLast(event);
+        }
+        for (Consumer<PlatformStallEvent> listener : stallListeners) {
+            try {
+                listener.accept(event);
+            } catch (Exception e) {
+                LOGGER.log(Level.SEVERE, "Error in stall listener", e);
+            }
+        }
+        PlatformDispatcher.getInstance().execute(() -> {
+            if (stallEvents.size() >= historySize) {
+                stallEvents.remove(0);
+            }
+            stallEvents.add(event);
+        });
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Collects primitive values into arrays and hands each filled array to a consumer on the dispatch thread. The arrays
+ * are pooled and reused once the consumer has handled them. Because of this, adding values doesn't box and doesn't
+ * allocate anything per value. A consumer must not keep a reference to the array it receives.
+ *
+ * @param <A> type of the primitive array
+ * @see io.datafx.core.concurrent.BoundedDispatch
+ */
+abstract class PrimitiveChunkedDispatch<A> {
+
+    final int chunkSize;
+
+    private final BoundedDispatch dispatch;
+
+    private final ObjIntConsumer<A> chunkConsumer;
+
+    private final ConcurrentLinkedQueue<A> pool;
+
+    A chunk;
+
+    int size;
+
+    PrimitiveChunkedDispatch(final int chunkSize, final int maxChunksInFlight, final String callSite, final ObjIntConsumer<A> chunkConsumer) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be > 0");
+        }
+        this.chunkSize = chunkSize;
+        this.dispatch = new BoundedDispatch(maxChunksInFlight, callSite);
+        this.chunkConsumer = Assert.requireNonNull(chunkConsumer, "chunkConsumer");
+        this.pool = new ConcurrentLinkedQueue<>();
+        this.chunk = createArray(chunkSize);
+    }
+
+    abstract A createArray(int length);
+
+    /**
+     * Must be called while holding the lock of this object after a value was added to the chunk. If the chunk is full
+     * it is replaced by an empty chunk and a runnable that handles the full chunk is returned. The runnable must be
+     * passed to {@link #dispatchChunk(Runnable)} once the lock is released, so no thread waits for the dispatch thread
+     * while holding the lock.
+     *
+     * @return the runnable that handles the full chunk or null
+     */
+    final Runnable valueAdded() {
+        return size >= chunkSize ? takeChunk() : null;
+    }
+
+    /**
+     * Dispatches all values that are not part of a full chunk
+     */
+    public void flush() {
+        Runnable rest = null;
+        synchronized (this) {
+            if (size > 0) {
+                rest = takeChunk();
+            }
+        }
+        dispatchChunk(rest);
+    }
+
+    private Runnable takeChunk() {
+        final A full = chunk;
+        final int length = size;
+        A next = pool.poll();
+        chunk = next != null ? next : createArray(chunkSize);
+        size = 0;
+        return () -> {
+            try {
+                chunkConsumer.accept(full, length);
+            } finally {
+                pool.offer(full);
+            }
+        };
+    }
+
+    final void dispatchChunk(final Runnable chunkHandler) {
+        if (chunkHandler != null) {
+            dispatch.dispatch(chunkHandler);
+        }
+    }
+
+    static final class OfInt extends PrimitiveChunkedDispatch<int[]> implements IntConsumer {
+
+        OfInt(final int chunkSize, final int maxChunksInFlight, final String callSite, final ObjIntConsumer<int[]> chunkConsumer) {
+            super(chunkSize, maxChunksInFlight, callSite, chunkConsumer);
+        }
+
+        @Override
+        int[] createArray(final int length) {
+            return new int[length];
+        }
+
+        @Override
+        public void accept(final int value) {
+            Runnable full;
+            synchronized (this) {
+                chunk[size++] = value;
+                full = valueAdded();
+            }
+            dispatchChunk(full);
+        }
+    }
+
+    static final class OfLong extends PrimitiveChunkedDispatch<long[]> implements LongConsumer {
+
+        OfLong(final int chunkSize, final int maxChunksInFlight, final String callSite, final ObjIntConsumer<long[]> chunkConsumer) {
+            super(chunkSize, maxChunksInFlight, callSite, chunkConsumer);
+        }
+
+        @Override
+        long[] createArray(final int length) {
+            return new long[length];
+        }
+
+        @Override
+        public void accept(final long value) {
+            Runnable full;
+            synchronized (this) {
+                chunk[size++] = value;
+                full = valueAdded();
+            }
+            dispatchChunk(full);
+        }
+    }
+
+    static final class OfDouble extends PrimitiveChunkedDispatch<double[]> implements DoubleConsumer {
+
+        OfDouble(final int chunkSize, final int maxChunksInFlight, final String callSite, final ObjIntConsumer<double[]> chunkConsumer) {
+            super(chunkSize, maxChunksInFlight, callSite, chunkConsumer);
+        }
+
+        @Override
+        double[] createArray(final int length) {
+            return new double[length];
+        }
+
+        @Override
+        public void accept(final double value) {
+            Runnable full;
+            synchronized (this) {
+                chunk[size++] = value;
+                full = valueAdded();
+            }
+            dispatchChunk(full);
+        }
+    }
+
+    /**
+     * Narrows double values to float while they are added
+     */
+    static final class OfFloat extends PrimitiveChunkedDispatch<float[]> implements DoubleConsumer {
+
+        OfFloat(final int chunkSize, final int maxChunksInFlight, final String callSite, final ObjIntConsumer<float[]> chunkConsumer) {
+            super(chunkSize, maxChunksInFlight, callSite, chunkConsumer);
+        }
+
+        @Override
+        float[] createArray(final int length) {
+            return new float[length];
+        }
+
+        @Override
+        public void accept(final double value) {
+            Runnable full;
+            synchronized (this) {
+                chunk[size++] = (float) value;
+                full = valueAdded();
+            }
+            dispatchChunk(full);
+        }
+    }
+}
@@ -29,6 +29,7 @@ package io.datafx.core.concurrent;
 import io.datafx.core.Assert;
 import io.datafx.core.ExceptionHandler;
 import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 import javafx.concurrent.Worker;
 import javafx.util.Duration;
@@ -36,8 +37,10 @@ import javafx.util.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -60,6 +63,11 @@ import java.util.function.Supplier;
  * In this example the {@link io.datafx.core.concurrent.ProcessChain} is used to wrap a background task
  * in some UI related tasks. By doing so, actions on the UI can be prohibited while the background action is running or
  * a loading animation can be shown on screen.
+ *
+ * Cancelling the task that is returned by {@link #run()} cancels the {@link io.datafx.core.concurrent.CancellationToken}
+ * of the execution. No further process will be started, a process that waits for the JavaFX Application Thread will be
+ * aborted and functions that were added by {@link #addCancellableFunction(BiFunction, ThreadType)} can check the token
+ * to stop their work. The final runnable will still be called exactly once.
  * @param <T> Return value of the chain.
  */
 public class ProcessChain<T> {
@@ -72,6 +80,8 @@ public class ProcessChain<T> {
 
     private Runnable finalRunnable;
 
+    private CompiledProcessChain<Object, T> compiledChain;
+
     public ProcessChain() {
         this(ObservableExecutor.getDefaultInstance());
     }
@@ -86,6 +96,8 @@ public class ProcessChain<T> {
         if (processes != null) {
             this.processes.addAll(processes);
         }
+        this.exceptionHandler = exceptionHandler;
+        this.finalRunnable = finalRunnable;
     }
 
     public static ProcessChain<Void> create() {
@@ -96,13 +108,100 @@ public class ProcessChain<T> {
         return new ProcessChain<>(executorService);
     }
 
+    /**
+     * Creates a new chain whose first process receives an input parameter. The input parameter is passed when
+     * the chain is executed by using a {@link CompiledProcessChain}.
+     *
+     * @param <I> type of the input parameter
+     * @return the chain
+     * @see #compile()
+     */
+    public static <I> ProcessChain<I> createWithInput() {
+        return new ProcessChain<>();
+    }
+
+    public static <I> ProcessChain<I> createWithInput(final Executor executorService) {
+        return new ProcessChain<>(executorService);
+    }
+
     public <V> ProcessChain<V> addFunction(final Function<T, V> function, final ThreadType type) {
         return addProcessDescription(new ProcessDescription<T, V>(function, type));
     }
 
+    /**
+     * Adds a function that receives the {@link CancellationToken} of the current execution in addition to the
+     * result of the previous process. The function can check the token to stop its work once the task that
+     * was returned by {@link #run()} is cancelled.
+     *
+     * @param function the function
+     * @param type defines the thread in that the function will be executed
+     * @param <V> return type of the function
+     * @return the process chain
+     */
+    public <V> ProcessChain<V> addCancellableFunction(final BiFunction<T, CancellationToken, V> function, final ThreadType type) {
+        return addProcessDescription(new ProcessDescription<T, V>(function, type));
+    }
+
+    /**
+     * Adds a function that receives the {@link CancellationToken} of the current execution and will be executed on
+     * the JavaFX Application Thread.
+     *
+     * @param function the function
+     * @param <V> return type of the function
+     * @return the process chain
+     * @see #addCancellableFunction(BiFunction, ThreadType)
+     */
+    public <V> ProcessChain<V> addCancellableFunctionInPlatformThread(final BiFunction<T, CancellationToken, V> function) {
+        return addCancellableFunction(function, ThreadType.PLATFORM);
+    }
+
+    /**
+     * Adds a function that receives the {@link CancellationToken} of the current execution and will be executed by
+     * the executor of the chain.
+     *
+     * @param function the function
+     * @param <V> return type of the function
+     * @return the process chain
+     * @see #addCancellableFunction(BiFunction, ThreadType)
+     */
+    public <V> ProcessChain<V> addCancellableFunctionInExecutor(final BiFunction<T, CancellationToken, V> function) {
+        return addCancellableFunction(function, ThreadType.EXECUTOR);
+    }
+
+    /**
+     * Adds a function whose results are cached for the input parameter. If a result for an equal input parameter is
+     * already cached the function won't be called and the chain won't switch to the thread of the function.
+     * The cache is shared by all executions of this chain.
+     *
+     * @param function the function
+     * @param type defines the thread in that the function will be executed
+     * @param maxSize the maximum number of cached results
+     * @param timeToLive defines how long a cached result is valid
+     * @param <V> return type of the function
+     * @return the process chain
+     * @see MemoizingProcessDescription
+     */
+    public <V> ProcessChain<V> addMemoizingFunction(final Function<T, V> function, final ThreadType type, final int maxSize, final Duration timeToLive) {
+        return addProcessDescription(new MemoizingProcessDescription<T, V>(function, type, maxSize, timeToLive));
+    }
+
+    public <V> ProcessChain<V> addMemoizingFunction(final Function<T, V> function, final ThreadType type) {
+        return addProcessDescription(new MemoizingProcessDescription<T, V>(function, type));
+    }
+
+    public <V> ProcessChain<V> addMemoizingFunctionInExecutor(final Function<T, V> function) {
+        return addMemoizingFunction(function, ThreadType.EXECUTOR);
+    }
+
+    public <V> ProcessChain<V> addMemoizingFunctionInPlatformThread(final Function<T, V> function) {
+        return addMemoizingFunction(function, ThreadType.PLATFORM);
+    }
+
     public <V> ProcessChain<V> addProcessDescription(final ProcessDescription<T, V> processDescription) {
-        processes.add(processDescription);
-        return new ProcessChain<V>(executorService, processes, exceptionHandler, finalRunnable);
+        Assert.requireNonNull(processDescription, "processDescription");
+        ProcessChain<V> chain = new ProcessChain<V>(executorService, processes, exceptionHandler, finalRunnable);
+        chain.processes.add(processDescription);
+        return chain;
     }
 
     public <V> ProcessChain<V> addFunctionInPlatformThread(final Function<T, V> function) {
@@ -185,20 +284,65 @@ public class ProcessChain<T> {
         return addPublishingTask(() -> FXCollections.observableArrayList(), consumer);
     }
 
+    /**
+     * Adds a process that publishes values to the given {@link java.util.concurrent.Flow.Subscriber}. The consumer
+     * is called in a background thread and the {@link Publisher} that is passed to it respects the demand of the
+     * subscriber: a publish call blocks while the subscriber can't handle more values. Once the consumer returns the
+     * subscriber will be completed.
+     *
+     * @param subscriber the subscriber, for example an {@link ObservableListSubscriber}
+     * @param consumer   the consumer that publishes all values
+     * @param <V>        type of the published values
+     * @return the process chain
+     */
+    public <V> ProcessChain<Void> addBackpressurePublishingTask(final Flow.Subscriber<? super V> subscriber, final Consumer<Publisher<V>> consumer) {
+        Assert.requireNonNull(subscriber, "subscriber");
+        Assert.requireNonNull(consumer, "consumer");
+        return addFunction(e -> {
+            BackpressurePublisher<V> publisher = new BackpressurePublisher<>();
+            publisher.subscribe(subscriber);
+            try {
+                consumer.accept(publisher);
+            } catch (RuntimeException exception) {
+                publisher.closeExceptionally(exception);
+                throw exception;
+            }
+            publisher.close();
+            return null;
+        }, ThreadType.EXECUTOR);
+    }
+
+    /**
+     * Adds a process that publishes values to the given list. The list will be updated on the JavaFX Application
+     * Thread and the publisher is slowed down if the JavaFX Application Thread can't handle all values.
+     *
+     * @param list     the list
+     * @param consumer the consumer that publishes all values
+     * @param <V>      type of the published values
+     * @return the process chain
+     * @see #addBackpressurePublishingTask(java.util.concurrent.Flow.Subscriber, Consumer)
+     */
+    public <V> ProcessChain<Void> addBackpressurePublishingTask(final ObservableList<V> list, final Consumer<Publisher<V>> consumer) {
+        return addBackpressurePublishingTask(new ObservableListSubscriber<V>(list), consumer);
+    }
+
     public ProcessChain<T> onException(final Consumer<Throwable> consumer) {
         Assert.requireNonNull(consumer, "consumer");
         this.exceptionHandler = new ExceptionHandler();
         exceptionHandler.exceptionProperty().addListener(e -> consumer.accept(exceptionHandler.getException()));
+        this.compiledChain = null;
         return this;
     }
 
     public ProcessChain<T> onException(final ExceptionHandler handler) {
         this.exceptionHandler = handler;
+        this.compiledChain = null;
         return this;
     }
 
     public ProcessChain<T> withFinal(final Runnable finalRunnable) {
         this.finalRunnable = finalRunnable;
+        this.compiledChain = null;
         return this;
     }
 
@@ -212,13 +356,24 @@ public class ProcessChain<T> {
         });
     }
 
-    private <U, V> V execute(final U inputParameter, final ProcessDescription<U, V> processDescription) throws InterruptedException, ExecutionException {
-        Assert.requireNonNull(processDescription, "processDescription");
-        if (processDescription.getThreadType().equals(ThreadType.EXECUTOR)) {
-            return processDescription.getFunction().apply(inputParameter);
-        } else {
-            return ConcurrentUtils.runCallableAndWait(() -> processDescription.getFunction().apply(inputParameter));
-        }
+    /**
+     * Adds a process that waits until the given worker is finished and passes its result to the next process. In
+     * contrast to {@link #waitFor(Worker)} the chain fails if the worker fails: the exception of the worker is passed
+     * to the exception handler of the chain instead of continuing with null.
+     *
+     * @param worker the worker
+     * @param <V>    result type of the worker
+     * @return the process chain
+     * @see ConcurrentUtils#waitForResult(Worker)
+     */
+    public <V> ProcessChain<V> waitForResult(final Worker<V> worker) {
+        return addSupplierInExecutor(() -> {
+            try {
+                return ConcurrentUtils.waitForResult(worker);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
     }
 
     public Task<T> repeatInfinite() {
@@ -234,49 +389,46 @@ public class ProcessChain<T> {
     }
 
     public Task<T> repeat(final int count, final Duration pauseTime) {
-        Assert.requireNonNull(pauseTime, "pauseTime");
-        Task<T> task = new Task<T>() {
-
-            @Override
-            protected T call() throws Exception {
-                try {
-                    Object lastResult = null;
-                    if (count == Integer.MAX_VALUE) {
-                        while (true) {
-                            lastResult = null;
-                            for (ProcessDescription<?, ?> processDescription : processes) {
-                                lastResult = execute(lastResult, (ProcessDescription<Object, ?>) processDescription);
-                            }
-                            Thread.sleep((long) pauseTime.toMillis());
-                        }
-                    } else {
-                        for (int i = 0; i < count; i++) {
-                            lastResult = null;
-                            for (ProcessDescription<?, ?> processDescription : processes) {
-                                lastResult = execute(lastResult, (ProcessDescription<Object, ?>) processDescription);
-                            }
-                            Thread.sleep((long) pauseTime.toMillis());
-                        }
-                    }
-                    return (T) lastResult;
-                } catch (Exception e) {
-                    if (exceptionHandler != null) {
-                        ConcurrentUtils.runAndWait(() -> exceptionHandler.setException(e));
-                    }
-                    throw e;
-                } finally {
-                    if (finalRunnable != null) {
-                        ConcurrentUtils.runAndWait(() -> finalRunnable.run());
-                    }
-                }
-            }
-
-        };
-        executorService.execute(task);
-        return task;
+        return getCompiledChain().repeat(null, count, pauseTime);
     }
 
     public Task<T> run() {
         return repeat(1);
     }
+
+    /**
+     * Creates an immutable copy of this chain that can be executed any number of times, even concurrently.
+     * Changes of this chain won't affect the compiled chain.
+     *
+     * @param <I> type of the input parameter that is passed to the first process of the chain
+     * @return the compiled chain
+     * @see CompiledProcessChain
+     */
+    public <I> CompiledProcessChain<I, T> compile() {
+        return new CompiledProcessChain<>(processes, executorService, exceptionHandler, finalRunnable);
+    }
+
+    /**
+     * Executes the chain without blocking any thread. Each process is executed as a continuation of the previous
+     * process: if the next process must be executed in another thread it will be scheduled on the executor or the
+     * JavaFX Application Thread and the current thread is released. In contrast to {@link #run()} no thread of the
+     * executor will wait while a process is executed on the JavaFX Application Thread.
+     * Cancelling the returned future cancels the {@link CancellationToken} of the execution.
+     *
+     * @return a future that will be completed with the result of the last process
+     */
+    public CompletableFuture<T> runAsync() {
+        return getCompiledChain().runAsync(null);
+    }
+
+    /**
+     * Returns a compiled version of the current state of this chain. The compiled chain is reused for all executions
+     * until the chain is changed.
+     */
+    private CompiledProcessChain<Object, T> getCompiledChain() {
+        if (compiledChain == null) {
+            compiledChain = compile();
+        }
+        return compiledChain;
+    }
 }
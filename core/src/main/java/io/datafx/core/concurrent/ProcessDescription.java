@@ -26,6 +26,7 @@
  */
 package io.datafx.core.concurrent;
 
+import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /**
@@ -40,6 +41,8 @@ public class ProcessDescription<V, T> {
 
     private final Function<V, T> function;
 
+    private final BiFunction<V, CancellationToken, T> cancellableFunction;
+
     private final ThreadType threadType;
 
     /**
@@ -54,6 +57,21 @@ public class ProcessDescription<V, T> {
      */
     public ProcessDescription(final Function<V, T> function, final ThreadType threadType) {
         this.function = function;
+        this.cancellableFunction = null;
+        this.threadType = threadType;
+    }
+
+    /**
+     * Creates a new <tt>ProcessDescription</tt> with the given cancellable function and thread type.
+     * In addition to the input parameter the function receives the {@link CancellationToken} of the current
+     * execution and can use it to stop its work once the surrounding chain was cancelled.
+     *
+     * @param cancellableFunction  defines what this process will do
+     * @param threadType  defines if the process should be executed om the JavaFX Platform Thread or on a background thread
+     */
+    public ProcessDescription(final BiFunction<V, CancellationToken, T> cancellableFunction, final ThreadType threadType) {
+        this.cancellableFunction = cancellableFunction;
+        this.function = v -> cancellableFunction.apply(v, new CancellationToken());
         this.threadType = threadType;
     }
 
@@ -66,6 +84,30 @@ public class ProcessDescription<V, T> {
         return function;
     }
 
+    /**
+     * Calls the function of the process with the given input parameter and cancellation token.
+     *
+     * @param inputParameter the input parameter
+     * @param token the token of the current execution
+     * @return the result of the function
+     */
+    public T apply(final V inputParameter, final CancellationToken token) {
+        if (cancellableFunction != null) {
+            return cancellableFunction.apply(inputParameter, token);
+        }
+        return function.apply(inputParameter);
+    }
+
+    /**
+     * Returns a short description of the process that can be used to identify it in diagnostic output
+     *
+     * @return the description
+     */
+    String getCallSiteName() {
+        Object f = cancellableFunction != null ? cancellableFunction : function;
+        return f == null ? "unknown" : f.getClass().getName();
+    }
+
     /**
      * Returns the thread type of the process
      * 
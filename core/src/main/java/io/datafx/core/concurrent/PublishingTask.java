@@ -27,18 +27,21 @@
 package io.datafx.core.concurrent;
 
 import io.datafx.core.Assert;
-import javafx.application.Platform;
 import javafx.beans.property.SimpleListProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.concurrent.Task;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * A PublishingTask is used to obtain a number of values, and store them in an
  * ObservableList. The values that are already available can be obtained
- * using the {@link #getPublishedValues()} call.
+ * using the {@link #getPublishedValues()} call. If the list is a
+ * {@link io.datafx.core.concurrent.TransactionalList} each publish call is
+ * fired as one change.
  *
  * @param <T> The type of the values that are obtained.
  */
@@ -66,9 +69,40 @@ public abstract class PublishingTask<T> extends Task<ObservableList<T>> implemen
 
     protected abstract void callTask() throws Exception;
 
+    /**
+     * Adds the values to the published values. If the list of published values is a
+     * {@link io.datafx.core.concurrent.Publisher} itself (like a {@link io.datafx.core.concurrent.RingBufferObservableList})
+     * the values are handed to the list, otherwise they are added on the JavaFX Application Thread.
+     *
+     * @param values the values
+     */
+    @SuppressWarnings("unchecked")
     public void publish(final T... values) {
-        if (values != null && values.length > 0) {
-            Platform.runLater(() -> publishedValues.addAll(Arrays.asList(values)));
+        if (values != null && values.length > 0 && publishedValues instanceof Publisher) {
+            ((Publisher<T>) publishedValues).publish(values);
+        } else if (values != null && values.length > 0) {
+            publishChanges(list -> list.addAll(Arrays.asList(values)));
+        }
+    }
+
+    /**
+     * Applies several modifications to the published values on the JavaFX Application Thread. If the list of published
+     * values is a {@link io.datafx.core.concurrent.TransactionalList} all modifications are done in one transaction,
+     * so listeners of the list receive only one change. A {@link io.datafx.core.concurrent.ConcurrentObservableList}
+     * buffers the modification and applies it together with all other buffered modifications.
+     *
+     * @param modification the modifications
+     */
+    @SuppressWarnings("unchecked")
+    public void publishChanges(final Consumer<? super List<T>> modification) {
+        Assert.requireNonNull(modification, "modification");
+        if (publishedValues instanceof ConcurrentObservableList) {
+            ((ConcurrentObservableList<T>) publishedValues).enqueue(modification);
+        } else if (publishedValues instanceof TransactionalList) {
+            TransactionalList<T> list = (TransactionalList<T>) publishedValues;
+            DispatchThreadManager.getDispatchThread().execute(PlatformProfiler.getInstance().wrap("PublishingTask publish", () -> list.runInTransaction(() -> modification.accept(list))));
+        } else {
+            DispatchThreadManager.getDispatchThread().execute(PlatformProfiler.getInstance().wrap("PublishingTask publish", () -> modification.accept(publishedValues)));
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,222 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import javafx.collections.ObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An {@link javafx.collections.ObservableList} with a fixed capacity that can be used to show the last entries of a
+ * log or an event stream. Elements can only be added at the end of the list. Once the capacity is reached the oldest
+ * elements are removed from the start of the list. The elements are stored in a circular array, so removing the
+ * oldest elements doesn't move any other element. Adding elements creates one change that contains at most one
+ * removal at the start of the list and one addition at the end of the list.
+ *
+ * The list can be modified directly on the JavaFX Application Thread. Background threads can add elements by calling
+ * {@link #publish(Object[])}, which never blocks. If the JavaFX Application Thread lags behind, elements that would
+ * be removed anyway are dropped before they are added to the list.
+ *
+ * @param <T> type of the elements
+ */
+public class RingBufferObservableList<T> extends ObservableListBase<T> implements Publisher<T> {
+
+    private final Object[] buffer;
+
+    private int head;
+
+    private int size;
+
+    private final Queue<T> pending;
+
+    private final AtomicInteger pendingCount;
+
+    private final AtomicBoolean updateScheduled;
+
+    /**
+     * Creates a new list
+     *
+     * @param capacity maximum number of elements in the list
+     */
+    public RingBufferObservableList(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be > 0");
+        }
+        this.buffer = new Object[capacity];
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.pendingCount = new AtomicInteger();
+        this.updateScheduled = new AtomicBoolean(false);
+    }
+
+    /**
+     * Returns the maximum number of elements in the list
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Adds the values to the end of the list. The values are added on the JavaFX Application Thread. Can be called
+     * from any thread and never blocks.
+     *
+     * @param values the values
+     */
+    @Override
+    @SafeVarargs
+    public final void publish(final T... values) {
+        for (T value : values) {
+            pending.add(value);
+            if (pendingCount.incrementAndGet() > buffer.length && pending.poll() != null) {
+                pendingCount.decrementAndGet();
+            }
+        }
+        if (updateScheduled.compareAndSet(false, true)) {
+            DispatchThreadManager.getDispatchThread().execute(this::applyPublishedValues);
+        }
+    }
+
+    private void applyPublishedValues() {
+        updateScheduled.set(false);
+        List<T> values = new ArrayList<>();
+        T value;
+        while ((value = pending.poll()) != null) {
+            pendingCount.decrementAndGet();
+            values.add(value);
+        }
+        PlatformProfiler.Measurement measurement = PlatformProfiler.getInstance().start("RingBufferObservableList publish");
+        try {
+            addAll(values);
+        } finally {
+            measurement.close();
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(final int index) {
+        Objects.checkIndex(index, size);
+        return (T) buffer[(head + index) % buffer.length];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(final int index, final T element) {
+        checkAppendIndex(index);
+        addAll(Collections.singletonList(element));
+    }
+
+    @Override
+    public boolean addAll(final int index, final Collection<? extends T> values) {
+        checkAppendIndex(index);
+        return addAll(values);
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends T> values) {
+        Assert.requireNonNull(values, "values");
+        Object[] added = values.toArray();
+        if (added.length == 0) {
+            return false;
+        }
+        int skipped = Math.max(0, added.length - buffer.length);
+        int addCount = added.length - skipped;
+        int evictCount = Math.max(0, size + addCount - buffer.length);
+        beginChange();
+        try {
+            if (evictCount > 0) {
+                nextRemove(0, evict(evictCount));
+            }
+            int from = size;
+            for (int i = skipped; i < added.length; i++) {
+                buffer[(head + size) % buffer.length] = added[i];
+                size++;
+            }
+            nextAdd(from, size);
+        } finally {
+            endChange();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean setAll(final Collection<? extends T> values) {
+        Assert.requireNonNull(values, "values");
+        beginChange();
+        try {
+            clear();
+            addAll(values);
+        } finally {
+            endChange();
+        }
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        beginChange();
+        try {
+            nextRemove(0, evict(size));
+        } finally {
+            endChange();
+        }
+    }
+
+    private List<T> evict(final int count) {
+        List<T> removed = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            removed.add(get(i));
+            buffer[(head + i) % buffer.length] = null;
+        }
+        head = (head + count) % buffer.length;
+        size -= count;
+        return removed;
+    }
+
+    private void checkAppendIndex(final int index) {
+        if (index != size) {
+            throw new UnsupportedOperationException("Elements can only be added at the end of a " + getClass().getSimpleName());
+        }
+    }
+}
@@ -27,40 +27,85 @@
 package io.datafx.core.concurrent;
 
 import io.datafx.core.Assert;
-import javafx.application.Platform;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.ObservableList;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
- * Stream Helper class for JavaFX. Combines the Stream API with the JavaFX platform thread
+ * Stream Helper class for JavaFX. Combines the Stream API with the JavaFX platform thread.
+ * The elements of the stream are collected in chunks and each chunk is handed to the JavaFX platform thread by one
+ * call. Only a limited number of chunks can wait for the platform thread. If the platform thread can't keep up with
+ * the stream the thread that consumes the stream will be blocked until the platform thread has handled a chunk.
  * @author Hendrik Ebbers
  *
  * @param <T> type of elements in Stream
  */
 public class StreamFX<T> {
 
+    /**
+     * The default number of elements that are handed to the platform thread by one call
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024;
+
+    /**
+     * The default number of chunks that can wait for the platform thread
+     */
+    public static final int DEFAULT_MAX_CHUNKS_IN_FLIGHT = 4;
+
     private final Stream<T> stream;
 
+    private final int chunkSize;
+
+    private final int maxChunksInFlight;
+
     /**
      * Create a StreamFX as a wrapper of a Stream
      * @param stream the stream to wrap
      */
     public StreamFX(final Stream<T> stream) {
+        this(stream, DEFAULT_CHUNK_SIZE, DEFAULT_MAX_CHUNKS_IN_FLIGHT);
+    }
+
+    /**
+     * Create a StreamFX as a wrapper of a Stream
+     * @param stream the stream to wrap
+     * @param chunkSize number of elements that are handed to the platform thread by one call
+     * @param maxChunksInFlight number of chunks that can wait for the platform thread before the stream is blocked
+     */
+    public StreamFX(final Stream<T> stream, final int chunkSize, final int maxChunksInFlight) {
         this.stream = Assert.requireNonNull(stream, "stream");
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be > 0");
+        }
+        if (maxChunksInFlight < 1) {
+            throw new IllegalArgumentException("maxChunksInFlight must be > 0");
+        }
+        this.chunkSize = chunkSize;
+        this.maxChunksInFlight = maxChunksInFlight;
     }
 
     /**
      * Performs an action for each element of this stream.
      * Each element is wrapped in a ObjectProperty and the action will run on the JavaFX Platform Thread
      * @param action action to perform on the elements
+     * @see #forEachElement(java.util.function.Consumer)
      */
     public void forEach(final Consumer<ObjectProperty<? super T>> action) {
         Assert.requireNonNull(action, "action");
-        stream.forEach(t -> Platform.runLater(() -> action.accept(new SimpleObjectProperty<T>(t))));
+        forEachElement(t -> action.accept(new SimpleObjectProperty<T>(t)));
     }
 
     /**
@@ -69,32 +114,149 @@ public class StreamFX<T> {
      * each element is processed in encounter order for streams that have a
      * defined encounter order
      * @param action action to perform on the elements
+     * @see #forEachElementOrdered(java.util.function.Consumer)
      */
     public void forEachOrdered(final Consumer<ObjectProperty<? super T>> action) {
         Assert.requireNonNull(action, "action");
-        stream.forEachOrdered(t -> Platform.runLater(() -> action.accept(new SimpleObjectProperty<T>(t))));
+        forEachElementOrdered(t -> action.accept(new SimpleObjectProperty<T>(t)));
+    }
+
+    /**
+     * Performs an action for each element of this stream. The action will run on the JavaFX Platform Thread
+     * @param action action to perform on the elements
+     */
+    public void forEachElement(final Consumer<? super T> action) {
+        Assert.requireNonNull(action, "action");
+        forEachChunk(chunk -> chunk.forEach(action), false, "StreamFX forEach");
+    }
+
+    /**
+     * Performs an action for each element of this stream. The action will run on the JavaFX Platform Thread
+     * each element is processed in encounter order for streams that have a
+     * defined encounter order
+     * @param action action to perform on the elements
+     */
+    public void forEachElementOrdered(final Consumer<? super T> action) {
+        Assert.requireNonNull(action, "action");
+        forEachChunk(chunk -> chunk.forEach(action), true, "StreamFX forEach");
     }
 
     /**
      * Publishes all elements of the stream to a ObservableList.
-     * the action for each element will run on the JavaFX Platform Thread
+     * the elements will be added on the JavaFX Platform Thread in chunks
      * @param list List to publish all elements to
      */
     public void publish(final ObservableList<T> list) {
         Assert.requireNonNull(list, "list");
-        stream.forEach(t -> Platform.runLater(() -> list.add(t)));
+        forEachChunk(list::addAll, false, "StreamFX publish");
     }
 
     /**
      * Publishes all elements of the stream to a ObservableList.
-     * the action for each element will run on the JavaFX Platform Thread
+     * the elements will be added on the JavaFX Platform Thread in chunks
      * each element is processed in encounter order for streams that have a
      * defined encounter order
      * @param list List to publish all elements to
      */
     public void publishOrderer(final ObservableList<T> list) {
         Assert.requireNonNull(list, "list");
-        stream.forEachOrdered(t -> Platform.runLater(() -> list.add(t)));
+        forEachChunk(list::addAll, true, "StreamFX publish");
+    }
+
+    /**
+     * Publishes all elements of a parallel stream to a ObservableList.
+     * The stream is split into parts that are computed in parallel in the common {@link java.util.concurrent.ForkJoinPool}.
+     * The computed parts are added on the JavaFX Platform Thread in encounter order. Only a limited number of parts
+     * is computed ahead of the next part that should be published. If the stream isn't parallel the behavior is the
+     * same as {@link #publishOrderer(javafx.collections.ObservableList)}.
+     * @param list List to publish all elements to
+     */
+    public void publishParallelOrdered(final ObservableList<T> list) {
+        publishParallelOrdered(list, ForkJoinPool.commonPool(), 2 * ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Publishes all elements of a parallel stream to a ObservableList.
+     * The stream is split into parts that are computed in parallel by the given executor.
+     * The computed parts are added on the JavaFX Platform Thread in encounter order. At most {@code maxPartsAhead}
+     * parts are computed ahead of the next part that should be published. If the stream isn't parallel the behavior
+     * is the same as {@link #publishOrderer(javafx.collections.ObservableList)}.
+     * @param list List to publish all elements to
+     * @param executor executor that computes the parts of the stream
+     * @param maxPartsAhead number of parts that can be computed or buffered before they are published
+     */
+    public void publishParallelOrdered(final ObservableList<T> list, final Executor executor, final int maxPartsAhead) {
+        Assert.requireNonNull(list, "list");
+        Assert.requireNonNull(executor, "executor");
+        if (maxPartsAhead < 1) {
+            throw new IllegalArgumentException("maxPartsAhead must be > 0");
+        }
+        if (!stream.isParallel()) {
+            publishOrderer(list);
+            return;
+        }
+        BoundedDispatch dispatch = new BoundedDispatch(maxChunksInFlight, "StreamFX publish");
+        Deque<Spliterator<T>> remaining = new ArrayDeque<>();
+        remaining.add(stream.spliterator());
+        Deque<CompletableFuture<List<T>>> reorderBuffer = new ArrayDeque<>();
+        try {
+            while (true) {
+                while (reorderBuffer.size() < maxPartsAhead && !remaining.isEmpty()) {
+                    Spliterator<T> part = nextPart(remaining);
+                    reorderBuffer.add(CompletableFuture.supplyAsync(() -> {
+                        List<T> elements = new ArrayList<>();
+                        part.forEachRemaining(elements::add);
+                        return elements;
+                    }, executor));
+                }
+                if (reorderBuffer.isEmpty()) {
+                    return;
+                }
+                List<T> elements = reorderBuffer.peek().get();
+                reorderBuffer.poll();
+                for (int i = 0; i < elements.size(); i += chunkSize) {
+                    List<T> chunk = elements.subList(i, Math.min(elements.size(), i + chunkSize));
+                    dispatch.dispatch(() -> list.addAll(chunk));
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while publishing the stream");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            reorderBuffer.forEach(f -> f.cancel(false));
+        }
+    }
+
+    /**
+     * Returns the first part of the remaining spliterators that is small enough to be computed as one part. The
+     * remaining spliterators are sorted by encounter order.
+     */
+    private Spliterator<T> nextPart(final Deque<Spliterator<T>> remaining) {
+        Spliterator<T> current = remaining.poll();
+        Spliterator<T> prefix;
+        while (current.estimateSize() > chunkSize && (prefix = current.trySplit()) != null) {
+            remaining.push(current);
+            current = prefix;
+        }
+        return current;
+    }
+
+    private void forEachChunk(final Consumer<List<T>> chunkConsumer, final boolean ordered, final String callSite) {
+        ChunkedDispatch<T> dispatch = new ChunkedDispatch<>(chunkSize, maxChunksInFlight, callSite, chunkConsumer);
+        if (ordered) {
+            stream.forEachOrdered(dispatch);
+        } else {
+            stream.forEach(dispatch);
+        }
+        dispatch.flush();
     }
 
 }
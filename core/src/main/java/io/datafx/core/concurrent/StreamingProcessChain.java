@@ -0,0 +1,377 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+import io.datafx.core.ExceptionHandler;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A chain of processes that work on a stream of items. In contrast to the {@link io.datafx.core.concurrent.ProcessChain}
+ * each process consumes and emits single items. All processes are running at the same time in their own background
+ * thread and are connected by bounded buffers. Once a buffer is full the process that fills it will be blocked until
+ * the next process has taken items from the buffer. The last process publishes the items in chunks to an
+ * {@link javafx.collections.ObservableList} on the JavaFX Application Thread. By doing so the memory that is needed
+ * doesn't depend on the number of items in the source. By default each execution of the chain starts its own
+ * threads, one for each process, so executions never wait for free threads of a shared pool.
+ *
+ * Here is a common usecase for the chain:
+ * <tt>
+ * StreamingProcessChain.create(() -&gt; Files.lines(path)).
+ * map(line -&gt; parse(line)).
+ * filter(record -&gt; record.isValid()).
+ * publishTo(tableView.getItems());
+ * </tt>
+ *
+ * @param <T> type of the items that are emitted by the last process of the chain
+ */
+public class StreamingProcessChain<T> {
+
+    /**
+     * The default capacity of the buffer between two processes
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+
+    /**
+     * The default number of items that are added to the list at once
+     */
+    public static final int DEFAULT_BATCH_SIZE = 128;
+
+    private static final Object END_OF_STREAM = new Object();
+
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    private static final Executor THREAD_PER_PROCESS = runnable -> {
+        Thread thread = new Thread(runnable, "StreamingProcessChain-" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+    };
+
+    private final Supplier<? extends Iterator<?>> source;
+
+    private final List<BiConsumer<Object, Consumer<Object>>> stages;
+
+    private final Executor executor;
+
+    private final int bufferSize;
+
+    private final int batchSize;
+
+    private final ExceptionHandler exceptionHandler;
+
+    private StreamingProcessChain(final Supplier<? extends Iterator<?>> source, final List<BiConsumer<Object, Consumer<Object>>> stages, final Executor executor, final int bufferSize, final int batchSize, final ExceptionHandler exceptionHandler) {
+        this.source = source;
+        this.stages = Collections.unmodifiableList(stages);
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.batchSize = batchSize;
+        this.exceptionHandler = exceptionHandler;
+    }
+
+    /**
+     * Creates a new chain that reads all items from the iterator that is provided by the given supplier.
+     * The supplier is called once for each execution of the chain.
+     *
+     * @param source supplier of the source iterator
+     * @param <S>    type of the source items
+     * @return the chain
+     */
+    public static <S> StreamingProcessChain<S> create(final Supplier<? extends Iterator<S>> source) {
+        Assert.requireNonNull(source, "source");
+        return new StreamingProcessChain<>(source, new ArrayList<>(), THREAD_PER_PROCESS, DEFAULT_BUFFER_SIZE, DEFAULT_BATCH_SIZE, null);
+    }
+
+    /**
+     * Creates a new chain that reads all items from the stream that is provided by the given supplier.
+     * The supplier is called once for each execution of the chain.
+     *
+     * @param source supplier of the source stream
+     * @param <S>    type of the source items
+     * @return the chain
+     */
+    public static <S> StreamingProcessChain<S> createFromStream(final Supplier<? extends Stream<S>> source) {
+        Assert.requireNonNull(source, "source");
+        return create(() -> source.get().iterator());
+    }
+
+    /**
+     * Adds a process that can emit any number of items for each consumed item.
+     *
+     * @param stage the process. The consumer that is passed to the process must be used to emit items.
+     * @param <V>   type of the emitted items
+     * @return a new chain that contains all processes of this chain and the given process
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <V> StreamingProcessChain<V> addStage(final BiConsumer<T, Consumer<V>> stage) {
+        Assert.requireNonNull(stage, "stage");
+        List<BiConsumer<Object, Consumer<Object>>> newStages = new ArrayList<>(stages);
+        newStages.add((BiConsumer<Object, Consumer<Object>>) (BiConsumer) stage);
+        return new StreamingProcessChain<>(source, newStages, executor, bufferSize, batchSize, exceptionHandler);
+    }
+
+    public <V> StreamingProcessChain<V> map(final Function<T, V> function) {
+        Assert.requireNonNull(function, "function");
+        return addStage((item, emitter) -> emitter.accept(function.apply(item)));
+    }
+
+    public StreamingProcessChain<T> filter(final Predicate<T> predicate) {
+        Assert.requireNonNull(predicate, "predicate");
+        return addStage((item, emitter) -> {
+            if (predicate.test(item)) {
+                emitter.accept(item);
+            }
+        });
+    }
+
+    /**
+     * Defines the executor that provides the threads for the processes. The executor must be able to run all
+     * processes of the chain at the same time: an execution needs one thread for the source, one for each process and
+     * one that publishes the items. If the executor queues one of these tasks the chain will never finish. If the
+     * executor is a {@link java.util.concurrent.ThreadPoolExecutor} whose maximum pool size is too small the execution
+     * fails immediately. By default each execution uses its own threads.
+     *
+     * @param executor the executor
+     * @return a new chain that uses the given executor
+     */
+    public StreamingProcessChain<T> withExecutor(final Executor executor) {
+        return new StreamingProcessChain<>(source, new ArrayList<>(stages), Assert.requireNonNull(executor, "executor"), bufferSize, batchSize, exceptionHandler);
+    }
+
+    /**
+     * Defines the capacity of the buffers between the processes
+     *
+     * @param bufferSize the capacity of each buffer
+     * @return a new chain that uses the given buffer size
+     */
+    public StreamingProcessChain<T> withBufferSize(final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive");
+        }
+        return new StreamingProcessChain<>(source, new ArrayList<>(stages), executor, bufferSize, batchSize, exceptionHandler);
+    }
+
+    /**
+     * Defines the maximum number of items that are added to the list at once
+     *
+     * @param batchSize the batch size
+     * @return a new chain that uses the given batch size
+     */
+    public StreamingProcessChain<T> withBatchSize(final int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be positive");
+        }
+        return new StreamingProcessChain<>(source, new ArrayList<>(stages), executor, bufferSize, batchSize, exceptionHandler);
+    }
+
+    public StreamingProcessChain<T> onException(final ExceptionHandler handler) {
+        return new StreamingProcessChain<>(source, new ArrayList<>(stages), executor, bufferSize, batchSize, handler);
+    }
+
+    /**
+     * Executes the chain and adds all items that are emitted by the last process to the given list.
+     * The items are added in chunks on the JavaFX Application Thread. At most two chunks are waiting for the JavaFX
+     * Application Thread at the same time. If the JavaFX Application Thread can't handle the chunks all processes
+     * will be slowed down.
+     *
+     * @param list the list
+     * @return a future that will be completed once all items were added to the list. Cancelling the future stops
+     * all processes of the chain.
+     * @throws IllegalStateException if the executor is a thread pool that can't run all processes at the same time
+     */
+    public CompletableFuture<Void> publishTo(final ObservableList<? super T> list) {
+        Assert.requireNonNull(list, "list");
+        int neededThreads = stages.size() + 2;
+        if (executor instanceof ThreadPoolExecutor && ((ThreadPoolExecutor) executor).getMaximumPoolSize() < neededThreads) {
+            throw new IllegalStateException("The executor can't run the " + neededThreads + " processes of the chain at the same time");
+        }
+        return new Execution(list).start();
+    }
+
+    private class Execution extends CompletableFuture<Void> {
+
+        private final ObservableList<Object> list;
+
+        private final List<Thread> threads;
+
+        private final Semaphore inFlightChunks;
+
+        private final CancellationToken token;
+
+        @SuppressWarnings("unchecked")
+        private Execution(final ObservableList<? super T> list) {
+            this.list = (ObservableList<Object>) list;
+            this.threads = new ArrayList<>();
+            this.inFlightChunks = new Semaphore(2);
+            this.token = new CancellationToken();
+            token.addCancelListener(() -> {
+                synchronized (threads) {
+                    threads.forEach(Thread::interrupt);
+                }
+            });
+        }
+
+        private CompletableFuture<Void> start() {
+            List<BlockingQueue<Object>> buffers = new ArrayList<>();
+            for (int i = 0; i <= stages.size(); i++) {
+                buffers.add(new ArrayBlockingQueue<>(bufferSize));
+            }
+            execute(() -> {
+                Iterator<?> iterator = source.get();
+                BlockingQueue<Object> out = buffers.get(0);
+                while (iterator.hasNext()) {
+                    token.throwIfCancelled();
+                    out.put(iterator.next());
+                }
+                out.put(END_OF_STREAM);
+            });
+            for (int i = 0; i < stages.size(); i++) {
+                BiConsumer<Object, Consumer<Object>> stage = stages.get(i);
+                BlockingQueue<Object> in = buffers.get(i);
+                BlockingQueue<Object> out = buffers.get(i + 1);
+                Consumer<Object> emitter = item -> {
+                    try {
+                        out.put(item);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        token.throwIfCancelled();
+                        throw new IllegalStateException("Process was interrupted", e);
+                    }
+                };
+                execute(() -> {
+                    Object item;
+                    while ((item = in.take()) != END_OF_STREAM) {
+                        stage.accept(item, emitter);
+                    }
+                    out.put(END_OF_STREAM);
+                });
+            }
+            execute(() -> {
+                BlockingQueue<Object> in = buffers.get(stages.size());
+                List<Object> chunk = new ArrayList<>(batchSize);
+                while (true) {
+                    Object item = in.poll();
+                    if (item == null) {
+                        publish(chunk);
+                        chunk = new ArrayList<>(batchSize);
+                        item = in.take();
+                    }
+                    if (item == END_OF_STREAM) {
+                        break;
+                    }
+                    chunk.add(item);
+                    if (chunk.size() >= batchSize) {
+                        publish(chunk);
+                        chunk = new ArrayList<>(batchSize);
+                    }
+                }
+                publish(chunk);
+                inFlightChunks.acquire(2);
+                DispatchThreadManager.getDispatchThread().execute(() -> complete(null));
+            });
+            return this;
+        }
+
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            token.cancel();
+            return super.cancel(mayInterruptIfRunning);
+        }
+
+        private void publish(final List<Object> chunk) throws InterruptedException {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            inFlightChunks.acquire();
+            DispatchThreadManager.getDispatchThread().execute(() -> {
+                PlatformProfiler.Measurement measurement = PlatformProfiler.getInstance().start("StreamingProcessChain publish");
+                try {
+                    list.addAll(chunk);
+                } catch (RuntimeException e) {
+                    fail(e);
+                } finally {
+                    measurement.close();
+                    inFlightChunks.release();
+                }
+            });
+        }
+
+        private void execute(final PipelineWorker worker) {
+            executor.execute(() -> {
+                synchronized (threads) {
+                    threads.add(Thread.currentThread());
+                }
+                try {
+                    if (!token.isCancelled()) {
+                        worker.run();
+                    }
+                } catch (Throwable e) {
+                    fail(e);
+                } finally {
+                    synchronized (threads) {
+                        threads.remove(Thread.currentThread());
+                    }
+                    Thread.interrupted();
+                }
+            });
+        }
+
+        /**
+         * Cancels all processes and completes the execution with the given exception, unless it was already cancelled
+         */
+        private void fail(final Throwable e) {
+            if (!token.isCancelled()) {
+                token.cancel();
+                if (completeExceptionally(e) && exceptionHandler != null) {
+                    exceptionHandler.setException(e);
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface PipelineWorker {
+        void run() throws Exception;
+    }
+}
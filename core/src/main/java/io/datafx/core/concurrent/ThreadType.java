@@ -40,5 +40,12 @@ public enum ThreadType {
     /**
      * A background thread that is NOT the JavaFX Application Thread
      */
-    EXECUTOR;
+    EXECUTOR,
+
+    /**
+     * The JavaFX Application Thread in the idle time after a pulse
+     *
+     * @see io.datafx.core.concurrent.IdleScheduler
+     */
+    IDLE;
 }
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+/**
+ * Algorithms that reduce the number of points of a time series while keeping its visual shape. All methods work on
+ * primitive arrays and expect the x values in ascending order.
+ */
+final class TimeSeriesDecimation {
+
+    private TimeSeriesDecimation() {}
+
+    /**
+     * Largest-Triangle-Three-Buckets downsampling of the {@code length} points that start at index {@code from}.
+     * Selects {@code threshold} points, but at least the first and the last point.
+     *
+     * @return the number of points that were written to the output arrays
+     */
+    static int lttb(final double[] x, final double[] y, final int from, final int length, final int threshold, final double[] outX, final double[] outY) {
+        if (threshold >= length || length <= 2) {
+            System.arraycopy(x, from, outX, 0, length);
+            System.arraycopy(y, from, outY, 0, length);
+            return length;
+        }
+        if (threshold < 3) {
+            outX[0] = x[from];
+            outY[0] = y[from];
+            outX[1] = x[from + length - 1];
+            outY[1] = y[from + length - 1];
+            return 2;
+        }
+        double every = (double) (length - 2) / (threshold - 2);
+        int a = from;
+        int count = 0;
+        outX[count] = x[from];
+        outY[count++] = y[from];
+        for (int i = 0; i < threshold - 2; i++) {
+            int averageStart = from + (int) Math.floor((i + 1) * every) + 1;
+            int averageEnd = from + Math.min((int) Math.floor((i + 2) * every) + 1, length);
+            double averageX = 0;
+            double averageY = 0;
+            for (int j = averageStart; j < averageEnd; j++) {
+                averageX += x[j];
+                averageY += y[j];
+            }
+            int averageLength = averageEnd - averageStart;
+            averageX /= averageLength;
+            averageY /= averageLength;
+
+            int rangeStart = from + (int) Math.floor(i * every) + 1;
+            int rangeEnd = from + (int) Math.floor((i + 1) * every) + 1;
+            double maxArea = -1;
+            int selected = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((x[a] - averageX) * (y[j] - y[a]) - (x[a] - x[j]) * (averageY - y[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    selected = j;
+                }
+            }
+            outX[count] = x[selected];
+            outY[count++] = y[selected];
+            a = selected;
+        }
+        outX[count] = x[from + length - 1];
+        outY[count++] = y[from + length - 1];
+        return count;
+    }
+
+    /**
+     * Splits the x range of the {@code length} points that start at index {@code from} into {@code buckets} buckets
+     * of the same width and selects the point with the minimum and the point with the maximum y value of each bucket.
+     * The first and the last point are always selected. The output arrays must have room for
+     * {@code 2 * buckets + 2} points.
+     *
+     * @return the number of points that were written to the output arrays
+     */
+    static int minMax(final double[] x, final double[] y, final int from, final int length, final int buckets, final double[] outX, final double[] outY) {
+        final int last = from + length - 1;
+        if (length <= 2 * buckets + 2 || x[last] <= x[from]) {
+            System.arraycopy(x, from, outX, 0, length);
+            System.arraycopy(y, from, outY, 0, length);
+            return length;
+        }
+        double start = x[from];
+        double scale = buckets / (x[last] - start);
+        int count = 0;
+        outX[count] = x[from];
+        outY[count++] = y[from];
+        int bucket = -1;
+        int min = -1;
+        int max = -1;
+        for (int i = from + 1; i < last; i++) {
+            int current = Math.min(buckets - 1, (int) ((x[i] - start) * scale));
+            if (current != bucket) {
+                count = appendMinMax(x, y, min, max, outX, outY, count);
+                bucket = current;
+                min = i;
+                max = i;
+            } else if (y[i] < y[min]) {
+                min = i;
+            } else if (y[i] > y[max]) {
+                max = i;
+            }
+        }
+        count = appendMinMax(x, y, min, max, outX, outY, count);
+        outX[count] = x[last];
+        outY[count++] = y[last];
+        return count;
+    }
+
+    private static int appendMinMax(final double[] x, final double[] y, final int min, final int max, final double[] outX, final double[] outY, int count) {
+        if (min < 0) {
+            return count;
+        }
+        int first = Math.min(min, max);
+        int second = Math.max(min, max);
+        outX[count] = x[first];
+        outY[count++] = y[first];
+        if (second != first) {
+            outX[count] = x[second];
+            outY[count++] = y[second];
+        }
+        return count;
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import javafx.collections.ObservableList;
+
+/**
+ * An {@link javafx.collections.ObservableList} that supports transactions. All modifications that are done between
+ * {@link #beginTransaction()} and {@link #commitTransaction()} are collected and fired as one
+ * {@link javafx.collections.ListChangeListener.Change} when the transaction is committed. By doing so a control that
+ * is bound to the list is only updated once even if the list is modified several times.
+ *
+ * Transactions can be nested. The change is fired when the outermost transaction is committed. Like any list that is
+ * bound to a control a transactional list must only be modified on the JavaFX Application Thread.
+ *
+ * Usage:
+ * <tt>
+ * list.runInTransaction(() -&gt; {
+ *     list.remove(0);
+ *     list.add("A");
+ *     list.set(2, "B");
+ * });
+ * </tt>
+ *
+ * @param <T> type of the elements
+ */
+public interface TransactionalList<T> extends ObservableList<T> {
+
+    /**
+     * Starts a transaction. Each call must be followed by a call of {@link #commitTransaction()}.
+     */
+    void beginTransaction();
+
+    /**
+     * Ends the current transaction. If this is the outermost transaction all modifications that are done since the
+     * transaction was started are fired as one change.
+     *
+     * @throws IllegalStateException if no transaction was started
+     */
+    void commitTransaction();
+
+    /**
+     * Returns true if a transaction is currently running
+     *
+     * @return true if a transaction is running
+     */
+    boolean isInTransaction();
+
+    /**
+     * Executes the given modification in a transaction
+     *
+     * @param modification the modification
+     */
+    default void runInTransaction(final Runnable modification) {
+        beginTransaction();
+        try {
+            modification.run();
+        } finally {
+            commitTransaction();
+        }
+    }
+}
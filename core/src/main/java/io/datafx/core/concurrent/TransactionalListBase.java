@@ -0,0 +1,342 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import javafx.collections.ModifiableObservableListBase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Base class for {@link io.datafx.core.concurrent.TransactionalList} implementations. Modifications that are done in
+ * a transaction don't fire any change. Instead the list records which ranges of the content before the transaction
+ * are still part of the list and keeps the elements that were removed from it. When the outermost transaction is
+ * committed one change is fired that contains all ranges that were removed or added. By doing so the change always
+ * describes the transition from the content before the transaction to the content after the transaction, no matter
+ * how the modifications of the transaction overlap. The costs of a transaction only depend on the number of
+ * modifications, not on the size of the list.
+ *
+ * Subclasses that modify the content without calling {@link #add(int, Object)}, {@link #set(int, Object)} or
+ * {@link #remove(int)}, for example to add a range in one step, must call {@link #recordModification(int, int, int)}
+ * before the content is modified and must only fire a change if it returns false.
+ *
+ * @param <T> type of the elements
+ */
+public abstract class TransactionalListBase<T> extends ModifiableObservableListBase<T> implements TransactionalList<T> {
+
+    private int transactionDepth;
+
+    /**
+     * The current content of the list as a sequence of ranges of the content before the transaction and of added
+     * elements, null until the list is modified in the transaction
+     */
+    private List<Run> runs;
+
+    private Map<Integer, T> removedElements;
+
+    private int oldSize;
+
+    private int fingerRun;
+
+    private int fingerStart;
+
+    @Override
+    public void beginTransaction() {
+        transactionDepth++;
+    }
+
+    @Override
+    public void commitTransaction() {
+        if (transactionDepth == 0) {
+            throw new IllegalStateException("No transaction was started");
+        }
+        transactionDepth--;
+        if (transactionDepth == 0) {
+            fireTransactionChange();
+        }
+    }
+
+    @Override
+    public boolean isInTransaction() {
+        return transactionDepth > 0;
+    }
+
+    @Override
+    public void add(final int index, final T element) {
+        if (transactionDepth == 0) {
+            super.add(index, element);
+            return;
+        }
+        Objects.checkIndex(index, size() + 1);
+        recordModification(index, index, 1);
+        doAdd(index, element);
+        modCount++;
+    }
+
+    @Override
+    public T set(final int index, final T element) {
+        if (transactionDepth == 0) {
+            return super.set(index, element);
+        }
+        Objects.checkIndex(index, size());
+        recordModification(index, index + 1, 1);
+        return doSet(index, element);
+    }
+
+    @Override
+    public T remove(final int index) {
+        if (transactionDepth == 0) {
+            return super.remove(index);
+        }
+        Objects.checkIndex(index, size());
+        recordModification(index, index + 1, 0);
+        T removed = doRemove(index);
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Replaces the elements from {@code from} (inclusive) to {@code to} (exclusive) by the given elements without
+     * firing a change. The default implementation modifies the list element by element, subclasses can override it
+     * to replace the range in one step.
+     *
+     * @param from     index of the first element that is replaced
+     * @param to       index after the last element that is replaced
+     * @param elements the elements that are inserted at {@code from}
+     * @return the elements that were removed
+     */
+    protected List<T> doReplace(final int from, final int to, final List<? extends T> elements) {
+        List<T> removed = new ArrayList<>(to - from);
+        int common = Math.min(to - from, elements.size());
+        for (int i = 0; i < common; i++) {
+            removed.add(doSet(from + i, elements.get(i)));
+        }
+        for (int i = from + common; i < to; i++) {
+            removed.add(doRemove(from + common));
+        }
+        for (int i = common; i < elements.size(); i++) {
+            doAdd(from + i, elements.get(i));
+        }
+        return removed;
+    }
+
+    /**
+     * Applies the changes of a {@link io.datafx.core.concurrent.ListDiff} and fires them as one change without
+     * comparing the content again. Each change is described by {@code oldFrom}, {@code oldTo}, {@code newFrom} and
+     * {@code newTo} in ascending order, the updates are the ascending new indices of kept elements that are replaced
+     * by the new value. Inside a transaction the changes are recorded like any other modification.
+     *
+     * @param changes the ranges of old indices that are replaced by ranges of new indices
+     * @param values  the new content of the list
+     * @param updates indices of the kept elements that are set to the new value
+     */
+    void applyChanges(final int[] changes, final List<? extends T> values, final int[] updates) {
+        if (changes.length == 0 && updates.length == 0) {
+            return;
+        }
+        beginChange();
+        try {
+            int update = 0;
+            for (int i = 0; i < changes.length; i += 4) {
+                int from = changes[i + 2];
+                int to = from + changes[i + 1] - changes[i];
+                int added = changes[i + 3] - from;
+                update = applyUpdates(values, updates, update, from);
+                boolean recorded = recordModification(from, to, added);
+                List<T> removed = doReplace(from, to, values.subList(from, from + added));
+                if (!recorded) {
+                    fireReplace(from, added, Collections.unmodifiableList(removed));
+                }
+            }
+            applyUpdates(values, updates, update, Integer.MAX_VALUE);
+            modCount++;
+        } finally {
+            endChange();
+        }
+    }
+
+    private int applyUpdates(final List<? extends T> values, final int[] updates, int update, final int before) {
+        for (; update < updates.length && updates[update] < before; update++) {
+            int index = updates[update];
+            boolean recorded = recordModification(index, index + 1, 1);
+            T removed = doSet(index, values.get(index));
+            if (!recorded) {
+                nextSet(index, removed);
+            }
+        }
+        return update;
+    }
+
+    /**
+     * Must be called before the elements from {@code from} (inclusive) to {@code to} (exclusive) are replaced by
+     * {@code added} other elements. An insertion is a replacement of an empty range. The indices must be valid. If no
+     * transaction is running nothing happens and the caller must fire a change for the modification.
+     *
+     * @param from  index of the first element that is replaced
+     * @param to    index after the last element that is replaced
+     * @param added number of elements that are inserted at {@code from}
+     * @return true if the modification is part of a transaction and no change must be fired
+     */
+    protected final boolean recordModification(final int from, final int to, final int added) {
+        if (transactionDepth == 0) {
+            return false;
+        }
+        if (runs == null) {
+            oldSize = size();
+            runs = new ArrayList<>();
+            if (oldSize > 0) {
+                runs.add(new Run(0, oldSize));
+            }
+            removedElements = new HashMap<>();
+            fingerRun = 0;
+            fingerStart = 0;
+        }
+        int index = splitAt(from);
+        int removing = to - from;
+        while (removing > 0) {
+            Run run = runs.get(index);
+            int count = Math.min(removing, run.length);
+            if (run.oldFrom >= 0) {
+                for (int i = 0; i < count; i++) {
+                    removedElements.put(run.oldFrom + i, get(to - removing + i));
+                }
+                run.oldFrom += count;
+            }
+            run.length -= count;
+            if (run.length == 0) {
+                runs.remove(index);
+            }
+            removing -= count;
+        }
+        fingerRun = index;
+        fingerStart = from;
+        if (added > 0) {
+            Run previous = index > 0 ? runs.get(index - 1) : null;
+            if (previous != null && previous.oldFrom < 0) {
+                fingerRun = index - 1;
+                fingerStart = from - previous.length;
+                previous.length += added;
+            } else {
+                runs.add(index, new Run(-1, added));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the index of the run that starts at the given position. A run that contains the position is split.
+     */
+    private int splitAt(final int position) {
+        int index = fingerRun;
+        int start = fingerStart;
+        while (index > 0 && start > position) {
+            index--;
+            start -= runs.get(index).length;
+        }
+        while (index < runs.size() && start + runs.get(index).length <= position) {
+            start += runs.get(index).length;
+            index++;
+        }
+        if (index < runs.size() && start < position) {
+            Run run = runs.get(index);
+            int head = position - start;
+            runs.add(index + 1, new Run(run.oldFrom < 0 ? -1 : run.oldFrom + head, run.length - head));
+            run.length = head;
+            index++;
+        }
+        return index;
+    }
+
+    private void fireTransactionChange() {
+        final List<Run> currentRuns = runs;
+        if (currentRuns == null) {
+            return;
+        }
+        final Map<Integer, T> removed = removedElements;
+        runs = null;
+        removedElements = null;
+        beginChange();
+        try {
+            int position = 0;
+            int nextOld = 0;
+            int added = 0;
+            for (Run run : currentRuns) {
+                if (run.oldFrom < 0) {
+                    added += run.length;
+                } else {
+                    nextChange(position, added, removed, nextOld, run.oldFrom);
+                    position += added + run.length;
+                    added = 0;
+                    nextOld = run.oldFrom + run.length;
+                }
+            }
+            nextChange(position, added, removed, nextOld, oldSize);
+        } finally {
+            endChange();
+        }
+    }
+
+    private void nextChange(final int from, final int added, final Map<Integer, T> removedElements, final int oldFrom, final int oldTo) {
+        List<T> removed = new ArrayList<>(oldTo - oldFrom);
+        for (int i = oldFrom; i < oldTo; i++) {
+            removed.add(removedElements.get(i));
+        }
+        fireReplace(from, added, Collections.unmodifiableList(removed));
+    }
+
+    private void fireReplace(final int from, final int added, final List<T> removed) {
+        if (removed.isEmpty()) {
+            if (added > 0) {
+                nextAdd(from, from + added);
+            }
+        } else if (added == 0) {
+            nextRemove(from, removed);
+        } else {
+            nextReplace(from, from + added, removed);
+        }
+    }
+
+    /**
+     * A range of the current content. Either a range of the content before the transaction that starts at
+     * {@code oldFrom} or a range of added elements if {@code oldFrom} is negative.
+     */
+    private static final class Run {
+
+        private int oldFrom;
+
+        private int length;
+
+        Run(final int oldFrom, final int length) {
+            this.oldFrom = oldFrom;
+            this.length = length;
+        }
+    }
+}
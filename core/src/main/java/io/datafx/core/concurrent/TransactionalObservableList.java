@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2011, 2014, Jonathan Giles, Johan Vos, Hendrik Ebbers
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *     * Redistributions of source code must retain the above copyright
+ * notice, this list of conditions and the following disclaimer.
+ *     * Redistributions in binary form must reproduce the above copyright
+ * notice, this list of conditions and the following disclaimer in the
+ * documentation and/or other materials provided with the distribution.
+ *     * Neither the name of DataFX, the website javafxdata.org, nor the
+ * names of its contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL DataFX BE LIABLE FOR ANY
+ * DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package io.datafx.core.concurrent;
+
+import io.datafx.core.Assert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@link io.datafx.core.concurrent.TransactionalList} that is based on an {@link java.util.ArrayList}. It can be
+ * used as a replacement for {@link javafx.collections.FXCollections#observableArrayList()} if the list is modified
+ * several times in a row, like when the result of a background task is applied.
+ *
+ * Usage:
+ * <tt>
+ * TransactionalObservableList&lt;String&gt; list = new TransactionalObservableList&lt;&gt;();
+ * listView.setItems(list);
+ * PublishingTask&lt;String&gt; task = new PublishingTask&lt;&gt;(list) {...};
+ * </tt>
+ *
+ * @param <T> type of the elements
+ */
+public class TransactionalObservableList<T> extends TransactionalListBase<T> {
+
+    private final List<T> elements;
+
+    public TransactionalObservableList() {
+        this.elements = new ArrayList<>();
+    }
+
+    /**
+     * Creates a new list that contains the given elements
+     *
+     * @param elements the elements
+     */
+    public TransactionalObservableList(final Collection<? extends T> elements) {
+        this.elements = new ArrayList<>(Assert.requireNonNull(elements, "elements"));
+    }
+
+    @Override
+    public T get(final int index) {
+        return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
+    @Override
+    protected void doAdd(final int index, final T element) {
+        elements.add(index, element);
+    }
+
+    @Override
+    protected T doSet(final int index, final T element) {
+        return elements.set(index, element);
+    }
+
+    @Override
+    protected T doRemove(final int index) {
+        return elements.remove(index);
+    }
+
+    @Override
+    protected List<T> doReplace(final int from, final int to, final List<? extends T> replacement) {
+        List<T> range = elements.subList(from, to);
+        List<T> removed = new ArrayList<>(range);
+        range.clear();
+        range.addAll(replacement);
+        return removed;
+    }
+}
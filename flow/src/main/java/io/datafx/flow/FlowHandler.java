@@ -27,6 +27,8 @@
 package io.datafx.flow;
 
 import io.datafx.core.ExceptionHandler;
+import io.datafx.core.concurrent.PlatformCallSite;
+import io.datafx.core.concurrent.PlatformProfiler;
 import io.datafx.flow.action.FlowAction;
 import io.datafx.flow.action.FlowLinkAction;
 import io.datafx.flow.event.*;
@@ -47,6 +49,7 @@ import javafx.scene.control.MenuItem;
 import javafx.stage.Stage;
 
 import java.util.UUID;
+import java.util.function.Supplier;
 
 // FIXME: 2/10/2018 Needs documentation
 public class FlowHandler {
@@ -172,7 +175,15 @@ public class FlowHandler {
 			}
 		}
 
-		action.handle(this, actionId);
+		Supplier<String> callSite = () -> "action " + actionId;
+		PlatformCallSite.Scope scope = PlatformCallSite.enter(callSite);
+		PlatformProfiler.Measurement measurement = PlatformProfiler.getInstance().start(callSite);
+		try {
+			action.handle(this, actionId);
+		} finally {
+			measurement.close();
+			scope.close();
+		}
 		if (afterFlowActionHandler != null && afterFlowActionHandler.getValue() != null) {
 			afterFlowActionHandler.getValue().handle(new AfterFlowActionEvent(actionId, action));
 		}
@@ -31,6 +31,7 @@ import io.datafx.flow.view.event.PostConstructListener;
 import io.datafx.flow.action.FlowAction;
 import io.datafx.util.NullNode;
 import io.datafx.core.DataFXUtils;
+import io.datafx.core.concurrent.PlatformProfiler;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
@@ -355,6 +356,7 @@ public class FlowView<T> {
 
 	public void show() throws FlowException {
 		if (controller != null) {
+			PlatformProfiler.Measurement measurement = PlatformProfiler.getInstance().start(() -> "show " + controllerClazz.getName());
 			try {
 				for (final Method method : DataFXUtils.getInheritedDeclaredMethods(getController().getClass())) {
 					if (method.isAnnotationPresent(ShowView.class)) {
@@ -363,12 +365,15 @@ public class FlowView<T> {
 				}
 			} catch (Exception e) {
 				throw new FlowException("Last ViewContext show fail!", e);
+			} finally {
+				measurement.close();
 			}
 		}
 	}
 
 	public void hide() throws FlowException {
 		if (controller != null) {
+			PlatformProfiler.Measurement measurement = PlatformProfiler.getInstance().start(() -> "hide " + controllerClazz.getName());
 			try {
 				for (final Method method : DataFXUtils.getInheritedDeclaredMethods(getController().getClass())) {
 					if (method.isAnnotationPresent(HideView.class)) {
@@ -377,6 +382,8 @@ public class FlowView<T> {
 				}
 			} catch (Exception e) {
 				throw new FlowException("Last ViewContext hide fail!", e);
+			} finally {
+				measurement.close();
 			}
 		}
 	}
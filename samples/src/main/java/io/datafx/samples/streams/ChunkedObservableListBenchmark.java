@@ -0,0 +1,74 @@
+package io.datafx.samples.streams;
+
+import io.datafx.core.concurrent.ChunkedObservableList;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/**
+ * Headless benchmark that compares {@link ChunkedObservableList} with {@link FXCollections#observableArrayList()}
+ * for lists with 1M and 10M elements. Measures incremental bulk appends, inserts and removes at random positions
+ * and random reads. No JavaFX toolkit is needed since the lists are only used in the main thread.
+ */
+public class ChunkedObservableListBenchmark {
+
+    private static final int[] SIZES = {1_000_000, 10_000_000};
+
+    private static final int OPERATIONS = 2_000;
+
+    private static final int BATCH_SIZE = 10_000;
+
+    public static void main(String[] args) {
+        for (int size : SIZES) {
+            System.out.printf("%,d elements%n", size);
+            for (int round = 0; round < 2; round++) {
+                run("observableArrayList", FXCollections::observableArrayList, size);
+                run("ChunkedObservableList", ChunkedObservableList::new, size);
+            }
+        }
+    }
+
+    private static void run(String name, Supplier<ObservableList<Integer>> factory, int size) {
+        ObservableList<Integer> list = factory.get();
+        list.addListener((ListChangeListener<Integer>) c -> {});
+        Random random = new Random(42);
+
+        long start = System.nanoTime();
+        List<Integer> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < size; i += BATCH_SIZE) {
+            batch.clear();
+            for (int j = i; j < Math.min(size, i + BATCH_SIZE); j++) {
+                batch.add(j);
+            }
+            list.addAll(batch);
+        }
+        long fill = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            list.add(random.nextInt(list.size()), i);
+        }
+        long insert = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < OPERATIONS; i++) {
+            list.remove(random.nextInt(list.size()));
+        }
+        long remove = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        long sum = 0;
+        for (int i = 0; i < OPERATIONS * 100; i++) {
+            sum += list.get(random.nextInt(list.size()));
+        }
+        long get = System.nanoTime() - start;
+
+        System.out.printf("  %-22s fill %,8.0f ms, insert %,10.0f ns/op, remove %,10.0f ns/op, get %,6.0f ns/op (%d)%n", name,
+                fill / 1_000_000.0, insert / (double) OPERATIONS, remove / (double) OPERATIONS, get / (OPERATIONS * 100.0), sum & 1);
+    }
+}
@@ -0,0 +1,56 @@
+package io.datafx.samples.streams;
+
+import io.datafx.core.concurrent.ConcurrentUtils;
+import io.datafx.core.concurrent.DispatchThreadManager;
+import io.datafx.core.concurrent.EventLoopDispatchThread;
+import io.datafx.core.concurrent.StreamFX;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Headless benchmark for {@link StreamFX#publishParallelOrdered(ObservableList)}. The dispatch thread is an event
+ * loop so no JavaFX toolkit is needed. Publishes the result of an expensive parallel computation and checks that
+ * the elements arrive in encounter order.
+ */
+public class ParallelStreamFXBenchmark {
+
+    private static final int ELEMENTS = 200_000;
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        DispatchThreadManager.setDispatchThread(new EventLoopDispatchThread());
+
+        for (int round = 0; round < ROUNDS; round++) {
+            System.out.println("Round " + (round + 1));
+            run("sequential", list -> new StreamFX<>(IntStream.range(0, ELEMENTS).mapToObj(ParallelStreamFXBenchmark::compute)).publishOrderer(list));
+            run("parallel forEachOrdered", list -> new StreamFX<>(IntStream.range(0, ELEMENTS).parallel().mapToObj(ParallelStreamFXBenchmark::compute)).publishOrderer(list));
+            run("parallel reordered", list -> new StreamFX<>(IntStream.range(0, ELEMENTS).parallel().mapToObj(ParallelStreamFXBenchmark::compute)).publishParallelOrdered(list));
+        }
+    }
+
+    private static void run(String name, Consumer<ObservableList<Long>> publisher) throws Exception {
+        ObservableList<Long> list = FXCollections.observableArrayList();
+        long start = System.nanoTime();
+        publisher.accept(list);
+        ConcurrentUtils.runAndWait(() -> {});
+        long nanos = System.nanoTime() - start;
+        for (int i = 0; i < ELEMENTS; i++) {
+            if (!list.get(i).equals(compute(i))) {
+                throw new IllegalStateException(name + ": wrong element at index " + i);
+            }
+        }
+        System.out.printf("  %-24s %,12.0f elements/s, order ok%n", name, ELEMENTS / (nanos / 1_000_000_000.0));
+    }
+
+    private static Long compute(int value) {
+        long hash = value;
+        for (int i = 0; i < 2_000; i++) {
+            hash = hash * 31 + (hash >>> 7);
+        }
+        return hash;
+    }
+}
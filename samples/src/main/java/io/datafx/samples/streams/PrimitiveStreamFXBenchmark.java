@@ -0,0 +1,77 @@
+package io.datafx.samples.streams;
+
+import io.datafx.core.concurrent.ConcurrentUtils;
+import io.datafx.core.concurrent.DispatchThreadManager;
+import io.datafx.core.concurrent.DoubleStreamFX;
+import io.datafx.core.concurrent.EventLoopDispatchThread;
+import io.datafx.core.concurrent.IntStreamFX;
+import io.datafx.core.concurrent.StreamFX;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableFloatArray;
+import javafx.collections.ObservableIntegerArray;
+import javafx.collections.ObservableList;
+
+import java.lang.management.ManagementFactory;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * Headless benchmark for the primitive StreamFX specializations. The dispatch thread is an event loop so no JavaFX
+ * toolkit is needed. For each run the bytes that are allocated by the producing thread and by the dispatch thread are
+ * measured and printed per element. The observable arrays are created with the needed capacity so the growth of the
+ * target isn't measured.
+ */
+public class PrimitiveStreamFXBenchmark {
+
+    private static final int ELEMENTS = 2_000_000;
+
+    private static final int ROUNDS = 5;
+
+    private static com.sun.management.ThreadMXBean threadBean;
+
+    private static long dispatchThreadId;
+
+    public static void main(String[] args) throws Exception {
+        DispatchThreadManager.setDispatchThread(new EventLoopDispatchThread());
+        threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        dispatchThreadId = ConcurrentUtils.runCallableAndWait(() -> Thread.currentThread().getId());
+
+        for (int round = 0; round < ROUNDS; round++) {
+            System.out.println("Round " + (round + 1));
+
+            ObservableList<Integer> boxedInts = FXCollections.observableArrayList();
+            run("StreamFX<Integer>", () -> new StreamFX<>(IntStream.range(0, ELEMENTS).boxed()).publishOrderer(boxedInts));
+
+            ObservableIntegerArray ints = FXCollections.observableIntegerArray();
+            ints.ensureCapacity(ELEMENTS);
+            run("IntStreamFX", () -> new IntStreamFX(IntStream.range(0, ELEMENTS)).publish(ints));
+
+            ObservableList<Double> boxedDoubles = FXCollections.observableArrayList();
+            run("StreamFX<Double>", () -> new StreamFX<>(DoubleStream.iterate(0, d -> d + 0.5).limit(ELEMENTS).boxed()).publishOrderer(boxedDoubles));
+
+            ObservableFloatArray floats = FXCollections.observableFloatArray();
+            floats.ensureCapacity(ELEMENTS);
+            run("DoubleStreamFX", () -> new DoubleStreamFX(DoubleStream.iterate(0, d -> d + 0.5).limit(ELEMENTS)).publish(floats));
+        }
+    }
+
+    private static void run(String name, Runnable publisher) throws Exception {
+        long[] ids = {Thread.currentThread().getId(), dispatchThreadId};
+        long before = sum(threadBean.getThreadAllocatedBytes(ids));
+        long start = System.nanoTime();
+        publisher.run();
+        ConcurrentUtils.runAndWait(() -> {});
+        long nanos = System.nanoTime() - start;
+        long allocated = sum(threadBean.getThreadAllocatedBytes(ids)) - before;
+        System.out.printf("  %-18s %,12.0f elements/s, %6.2f bytes allocated per element%n", name,
+                ELEMENTS / (nanos / 1_000_000_000.0), allocated / (double) ELEMENTS);
+    }
+
+    private static long sum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+}
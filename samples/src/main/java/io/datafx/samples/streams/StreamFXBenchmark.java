@@ -0,0 +1,58 @@
+package io.datafx.samples.streams;
+
+import io.datafx.core.concurrent.CallSiteStatistics;
+import io.datafx.core.concurrent.ConcurrentUtils;
+import io.datafx.core.concurrent.DispatchThreadManager;
+import io.datafx.core.concurrent.EventLoopDispatchThread;
+import io.datafx.core.concurrent.PlatformProfiler;
+import io.datafx.core.concurrent.StreamFX;
+import javafx.collections.FXCollections;
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Headless benchmark for {@link StreamFX#publish(ObservableList)}. The dispatch thread is an event loop so no
+ * JavaFX toolkit is needed. Compares one dispatch per element with chunked publishing and prints the elements per
+ * second and the time that was spent on the dispatch thread.
+ */
+public class StreamFXBenchmark {
+
+    private static final int ELEMENTS = 500_000;
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        DispatchThreadManager.setDispatchThread(new EventLoopDispatchThread());
+        PlatformProfiler.getInstance().setEnabled(true);
+
+        for (int round = 0; round < ROUNDS; round++) {
+            System.out.println("Round " + (round + 1));
+            run("element per dispatch", list -> IntStream.range(0, ELEMENTS).forEach(i ->
+                    DispatchThreadManager.getDispatchThread().execute(
+                            PlatformProfiler.getInstance().wrap("element per dispatch", () -> list.add(i)))));
+            run("chunked", list -> new StreamFX<>(IntStream.range(0, ELEMENTS).boxed()).publish(list));
+        }
+    }
+
+    private static void run(String name, Consumer<ObservableList<Integer>> publisher) throws Exception {
+        PlatformProfiler.getInstance().reset();
+        ObservableList<Integer> list = FXCollections.observableArrayList();
+        list.addListener((ListChangeListener<Integer>) c -> {});
+        long start = System.nanoTime();
+        publisher.accept(list);
+        ConcurrentUtils.runAndWait(() -> {});
+        long nanos = System.nanoTime() - start;
+        long dispatchNanos = 0;
+        for (CallSiteStatistics statistics : PlatformProfiler.getInstance().getTopCallSites(Integer.MAX_VALUE)) {
+            dispatchNanos += statistics.getTotalNanos();
+        }
+        if (list.size() != ELEMENTS) {
+            throw new IllegalStateException("Expected " + ELEMENTS + " elements but got " + list.size());
+        }
+        System.out.printf("  %-22s %,12.0f elements/s, dispatch thread busy %,8.1f ms%n", name,
+                ELEMENTS / (nanos / 1_000_000_000.0), dispatchNanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,193 @@
+package io.datafx.samples.streams;
+
+import io.datafx.core.concurrent.ChunkedObservableList;
+import io.datafx.core.concurrent.ConcurrentObservableList;
+import io.datafx.core.concurrent.ConcurrentUtils;
+import io.datafx.core.concurrent.DispatchThreadManager;
+import io.datafx.core.concurrent.EventLoopDispatchThread;
+import io.datafx.core.concurrent.ListDiffPublisher;
+import io.datafx.core.concurrent.PersistentObservableList;
+import io.datafx.core.concurrent.TransactionalList;
+import io.datafx.core.concurrent.TransactionalObservableList;
+import javafx.collections.ListChangeListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Headless check for the changes that are fired when a {@link TransactionalList} transaction is committed. Random
+ * transactions are executed and every change is replayed on a copy of the list. The check fails if the copy differs
+ * from the list after a transaction, if a change reports removed elements that weren't part of the list or if more
+ * than one change is fired per transaction. The buffered modifications of a {@link ConcurrentObservableList} and the
+ * updates of a {@link ListDiffPublisher} are checked the same way. The dispatch thread is an event loop so no JavaFX toolkit is needed.
+ */
+public class TransactionalListReplayCheck {
+
+    private static final int TRANSACTIONS = 200_000;
+
+    private static final int OPERATIONS = 10;
+
+    public static void main(String[] args) throws Exception {
+        DispatchThreadManager.setDispatchThread(new EventLoopDispatchThread());
+        check("TransactionalObservableList", TransactionalObservableList::new);
+        check("ChunkedObservableList", ChunkedObservableList::new);
+        check("PersistentObservableList", PersistentObservableList::new);
+        check("ConcurrentObservableList", ConcurrentObservableList::new);
+        ConcurrentUtils.runAndWait(() -> replay(ConcurrentObservableList::new, Arrays.asList(0, 1), list -> {
+            ConcurrentObservableList<Integer> concurrentList = (ConcurrentObservableList<Integer>) list;
+            concurrentList.enqueueRemove(1);
+            concurrentList.enqueue(l -> l.add(0, 101));
+            concurrentList.enqueueRemove(101);
+            concurrentList.applyPendingModifications();
+        }));
+        System.out.println("ConcurrentObservableList: buffered modifications replayed");
+        checkListDiff();
+        System.out.println("All changes could be replayed");
+        System.exit(0);
+    }
+
+    private static void check(String name, Supplier<TransactionalList<Integer>> factory) {
+        replay(factory, Arrays.asList(0, 1), list -> list.runInTransaction(() -> {
+            list.remove(1);
+            list.add(0, 101);
+            list.remove(0);
+        }));
+        Random random = new Random(42);
+        int[] values = {1000};
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            List<Integer> initial = new ArrayList<>();
+            int size = random.nextInt(8);
+            for (int j = 0; j < size; j++) {
+                initial.add(j);
+            }
+            replay(factory, initial, list -> list.runInTransaction(() -> {
+                for (int j = 0; j < OPERATIONS; j++) {
+                    modify(list, random, values);
+                }
+            }));
+        }
+        System.out.printf("%s: %,d transactions replayed%n", name, TRANSACTIONS + 1);
+    }
+
+    private static void checkListDiff() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < TRANSACTIONS / 10; i++) {
+            List<Integer> initial = new ArrayList<>();
+            int size = random.nextInt(20);
+            for (int j = 0; j < size; j++) {
+                initial.add(1000 + j);
+            }
+            List<Integer> values = new ArrayList<>(initial);
+            boolean removeOnly = random.nextBoolean();
+            for (int j = random.nextInt(6); j > 0 && !values.isEmpty(); j--) {
+                values.remove(random.nextInt(values.size()));
+                if (!removeOnly) {
+                    values.add(random.nextInt(values.size() + 1), 2000 + j);
+                    Integer moved = values.remove(random.nextInt(values.size()));
+                    values.add(random.nextInt(values.size() + 1), moved);
+                }
+            }
+            boolean[] added = {false};
+            List<Supplier<TransactionalList<Integer>>> factories = Arrays.asList(TransactionalObservableList::new,
+                    ChunkedObservableList::new, ConcurrentObservableList::new);
+            TransactionalList<Integer> list = replay(factories.get(i % factories.size()), initial, l -> {
+                try {
+                    ListDiffPublisher<Integer, Integer> publisher = new ListDiffPublisher<>(l, v -> v);
+                    publisher.publish(initial);
+                    publisher.publish(values);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }, c -> added[0] |= c.wasAdded());
+            if (removeOnly && added[0]) {
+                throw new IllegalStateException("Elements were added while " + initial + " was changed to " + values);
+            }
+            if (!list.equals(values)) {
+                throw new IllegalStateException("Published " + values + " but the list contains " + list);
+            }
+        }
+        System.out.printf("ListDiffPublisher: %,d updates replayed%n", TRANSACTIONS / 10);
+    }
+
+    private static void modify(TransactionalList<Integer> list, Random random, int[] values) {
+        int size = list.size();
+        switch (random.nextInt(9)) {
+            case 0:
+                list.add(random.nextInt(size + 1), values[0]++);
+                break;
+            case 1:
+                if (size > 0) {
+                    list.remove(random.nextInt(size));
+                }
+                break;
+            case 2:
+                if (size > 0) {
+                    list.set(random.nextInt(size), values[0]++);
+                }
+                break;
+            case 3:
+                list.addAll(random.nextInt(size + 1), Arrays.asList(values[0]++, values[0]++));
+                break;
+            case 4:
+                int from = random.nextInt(size + 1);
+                list.remove(from, from + random.nextInt(size - from + 1));
+                break;
+            case 5:
+                list.removeIf(v -> v % 3 == 0);
+                break;
+            case 6:
+                if (size > 0) {
+                    list.remove(list.get(random.nextInt(size)));
+                }
+                break;
+            case 7:
+                list.runInTransaction(() -> {
+                    modify(list, random, values);
+                    modify(list, random, values);
+                });
+                break;
+            default:
+                if (random.nextInt(4) == 0) {
+                    list.setAll(values[0]++, values[0]++);
+                }
+        }
+    }
+
+    private static void replay(Supplier<TransactionalList<Integer>> factory, List<Integer> initial, Consumer<TransactionalList<Integer>> modification) {
+        replay(factory, initial, modification, c -> {});
+    }
+
+    private static TransactionalList<Integer> replay(Supplier<TransactionalList<Integer>> factory, List<Integer> initial, Consumer<TransactionalList<Integer>> modification, Consumer<ListChangeListener.Change<? extends Integer>> subChangeConsumer) {
+        TransactionalList<Integer> list = factory.get();
+        list.addAll(initial);
+        List<Integer> copy = new ArrayList<>(initial);
+        int[] changes = {0};
+        list.addListener((ListChangeListener<Integer>) c -> {
+            changes[0]++;
+            while (c.next()) {
+                List<Integer> replaced = copy.subList(c.getFrom(), c.getFrom() + c.getRemovedSize());
+                if (!replaced.equals(c.getRemoved())) {
+                    throw new IllegalStateException("Change removes " + c.getRemoved() + " but the list contains "
+                            + replaced + " at " + c.getFrom() + ", initial content " + initial);
+                }
+                replaced.clear();
+                copy.addAll(c.getFrom(), c.getAddedSubList());
+                subChangeConsumer.accept(c);
+            }
+        });
+        modification.accept(list);
+        if (!copy.equals(list)) {
+            throw new IllegalStateException("Replayed " + copy + " but the list contains " + list + ", initial content "
+                    + initial);
+        }
+        if (changes[0] > 1) {
+            throw new IllegalStateException(changes[0] + " changes were fired for one transaction, initial content "
+                    + initial);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,238 @@
+package io.datafx.samples.streams;
+
+import io.datafx.core.ExceptionHandler;
+import io.datafx.core.concurrent.ConcurrentUtils;
+import io.datafx.core.concurrent.DispatchThreadManager;
+import io.datafx.core.concurrent.EventLoopDispatchThread;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
+import javafx.concurrent.Worker;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Headless regression check for the observation of workers. One million workers are observed by
+ * {@link ConcurrentUtils#then(Worker, java.util.function.Consumer)} or
+ * {@link ConcurrentUtils#thenOnce(Worker, java.util.function.Consumer)},
+ * {@link ConcurrentUtils#createIsDoneProperty(Worker)}, {@link ConcurrentUtils#toCompletableFuture(Worker)} and
+ * {@link ExceptionHandler#observeWorker(Worker)}. Half of them are single shot workers, the other half are executions
+ * of one long living worker that is restarted for each execution. Each observer holds a payload, so listeners that
+ * aren't removed let the heap grow by several hundred megabytes. The check fails if the used heap grows by more than
+ * {@link #MAX_HEAP_GROWTH} bytes. The dispatch thread is an event loop so no JavaFX toolkit is needed.
+ */
+public class WorkerObservationLeakCheck {
+
+    private static final int TASKS = 1_000_000;
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private static final int PAYLOAD_SIZE = 256;
+
+    private static final long MAX_HEAP_GROWTH = 4 * 1024 * 1024;
+
+    private static long checksum;
+
+    public static void main(String[] args) throws Exception {
+        DispatchThreadManager.setDispatchThread(new EventLoopDispatchThread());
+        RestartableWorker<Integer> longLivingWorker = new RestartableWorker<>();
+
+        observe(longLivingWorker, 0, TASKS / 10);
+        long heapBefore = usedHeap();
+        System.out.printf("Used heap after warm up: %,d KB%n", heapBefore / 1024);
+
+        long start = System.nanoTime();
+        for (int done = TASKS / 10; done < TASKS; done += BATCH_SIZE) {
+            observe(longLivingWorker, done, done + BATCH_SIZE);
+            if (done % (TASKS / 10) == 0) {
+                System.out.printf("  %,9d tasks, used heap %,d KB%n", done, usedHeap() / 1024);
+            }
+        }
+        long heapAfter = usedHeap();
+        System.out.printf("Used heap after %,d tasks: %,d KB (%.1f s, checksum %d)%n", TASKS, heapAfter / 1024,
+                (System.nanoTime() - start) / 1_000_000_000.0, checksum);
+
+        long growth = heapAfter - heapBefore;
+        if (growth > MAX_HEAP_GROWTH) {
+            throw new IllegalStateException("Heap grew by " + growth / 1024 + " KB while workers were observed");
+        }
+        System.out.println("Heap stayed flat");
+        System.exit(0);
+    }
+
+    private static void observe(RestartableWorker<Integer> longLivingWorker, int from, int to) throws Exception {
+        CompletableFuture<?>[] results = new CompletableFuture<?>[to - from];
+        ConcurrentUtils.runAndWait(() -> {
+            for (int i = from; i < to; i++) {
+                final int value = i;
+                Worker<Integer> worker;
+                if (i % 2 == 0) {
+                    CompletableFuture<Integer> future = new CompletableFuture<>();
+                    worker = ConcurrentUtils.toWorker(future);
+                    DispatchThreadManager.getDispatchThread().execute(() -> future.complete(value));
+                } else {
+                    longLivingWorker.restart();
+                    worker = longLivingWorker;
+                }
+                byte[] payload = new byte[PAYLOAD_SIZE];
+                if (worker == longLivingWorker) {
+                    ConcurrentUtils.thenOnce(worker, v -> payload[0] = v.byteValue());
+                } else {
+                    ConcurrentUtils.then(worker, v -> payload[0] = v.byteValue());
+                }
+                ReadOnlyBooleanProperty doneProperty = ConcurrentUtils.createIsDoneProperty(worker);
+                doneProperty.addListener((o, oldValue, newValue) -> payload[1] = 1);
+                ExceptionHandler.getDefaultInstance().observeWorker(worker);
+                results[i - from] = ConcurrentUtils.toCompletableFuture(worker).thenAccept(v -> payload[2] = 1);
+                if (worker == longLivingWorker) {
+                    longLivingWorker.succeed(value);
+                }
+            }
+        });
+        CompletableFuture.allOf(results).get();
+        checksum += results.length;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * A worker that can be executed any number of times, like a {@link javafx.concurrent.Service}, but doesn't need
+     * the JavaFX toolkit. The state must only be changed on the dispatch thread.
+     */
+    private static class RestartableWorker<V> implements Worker<V> {
+
+        private final ReadOnlyObjectWrapper<State> state = new ReadOnlyObjectWrapper<>(this, "state", State.READY);
+
+        private final ReadOnlyObjectWrapper<V> value = new ReadOnlyObjectWrapper<>(this, "value");
+
+        private final ReadOnlyObjectWrapper<Throwable> exception = new ReadOnlyObjectWrapper<>(this, "exception");
+
+        private final ReadOnlyBooleanWrapper running = new ReadOnlyBooleanWrapper(this, "running");
+
+        private final ReadOnlyDoubleWrapper progress = new ReadOnlyDoubleWrapper(this, "progress", -1);
+
+        private final ReadOnlyStringWrapper title = new ReadOnlyStringWrapper(this, "title", "");
+
+        private final ReadOnlyStringWrapper message = new ReadOnlyStringWrapper(this, "message", "");
+
+        private void restart() {
+            value.set(null);
+            state.set(State.READY);
+            state.set(State.RUNNING);
+            running.set(true);
+        }
+
+        private void succeed(V result) {
+            value.set(result);
+            running.set(false);
+            state.set(State.SUCCEEDED);
+        }
+
+        @Override
+        public State getState() {
+            return state.get();
+        }
+
+        @Override
+        public ReadOnlyObjectProperty<State> stateProperty() {
+            return state.getReadOnlyProperty();
+        }
+
+        @Override
+        public V getValue() {
+            return value.get();
+        }
+
+        @Override
+        public ReadOnlyObjectProperty<V> valueProperty() {
+            return value.getReadOnlyProperty();
+        }
+
+        @Override
+        public Throwable getException() {
+            return exception.get();
+        }
+
+        @Override
+        public ReadOnlyObjectProperty<Throwable> exceptionProperty() {
+            return exception.getReadOnlyProperty();
+        }
+
+        @Override
+        public double getWorkDone() {
+            return -1;
+        }
+
+        @Override
+        public ReadOnlyDoubleProperty workDoneProperty() {
+            return progress.getReadOnlyProperty();
+        }
+
+        @Override
+        public double getTotalWork() {
+            return -1;
+        }
+
+        @Override
+        public ReadOnlyDoubleProperty totalWorkProperty() {
+            return progress.getReadOnlyProperty();
+        }
+
+        @Override
+        public double getProgress() {
+            return -1;
+        }
+
+        @Override
+        public ReadOnlyDoubleProperty progressProperty() {
+            return progress.getReadOnlyProperty();
+        }
+
+        @Override
+        public boolean isRunning() {
+            return running.get();
+        }
+
+        @Override
+        public ReadOnlyBooleanProperty runningProperty() {
+            return running.getReadOnlyProperty();
+        }
+
+        @Override
+        public String getMessage() {
+            return message.get();
+        }
+
+        @Override
+        public ReadOnlyStringProperty messageProperty() {
+            return message.getReadOnlyProperty();
+        }
+
+        @Override
+        public String getTitle() {
+            return title.get();
+        }
+
+        @Override
+        public ReadOnlyStringProperty titleProperty() {
+            return title.getReadOnlyProperty();
+        }
+
+        @Override
+        public boolean cancel() {
+            return false;
+        }
+    }
+}